@@ -0,0 +1,45 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.FenNotation;
+import chess.PerftRunner;
+
+import java.util.Map;
+
+/**
+ * The fixed set of positions every benchmark runs over, so numbers stay comparable between runs.
+ * It mixes openings, busy middlegames and sparse endgames, plus a mate and a stalemate
+ * for the game-over checks.
+ */
+public class BenchmarkPositionCorpus {
+
+    // Names are used as JMH @Param values, so keep them in sync with the benchmark classes
+    public static final String OPENING = "opening";
+    public static final String MIDDLEGAME_ITALIAN = "middlegame-italian";
+    public static final String MIDDLEGAME_KIWIPETE = "middlegame-kiwipete";
+    public static final String MIDDLEGAME_CHECKS = "middlegame-checks";
+    public static final String ENDGAME_ROOK_PAWNS = "endgame-rook-pawns";
+    public static final String ENDGAME_QUEEN_ROOK = "endgame-queen-rook";
+    public static final String CHECKMATE = "checkmate";
+    public static final String STALEMATE = "stalemate";
+
+    // Every position as a full FEN string
+    private static final Map<String, String> POSITIONS = Map.of(
+            OPENING, FenNotation.START_POSITION,
+            MIDDLEGAME_ITALIAN, "r1bq1rk1/pppp1ppp/2n2n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w - - 0 7",
+            MIDDLEGAME_KIWIPETE, PerftRunner.KIWIPETE.fen(),
+            MIDDLEGAME_CHECKS, PerftRunner.MIDDLEGAME_CHECKS.fen(),
+            ENDGAME_ROOK_PAWNS, PerftRunner.ENDGAME_ROOK_PAWNS.fen(),
+            ENDGAME_QUEEN_ROOK, "8/8/4k3/8/2Q5/8/3r4/4K3 w - - 0 1",
+            CHECKMATE, "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3",
+            STALEMATE, "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"
+    );
+
+    public static ChessGame load(String positionName) {
+        String fen = POSITIONS.get(positionName);
+        if (fen == null) {
+            throw new IllegalArgumentException("Error: Unknown benchmark position " + positionName);
+        }
+        return FenNotation.parse(fen);
+    }
+}
@@ -0,0 +1,72 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessGameBinaryCodec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON a game turns into over Gson (the FEN string written by ChessGsonAdapters, which is
+ * what every LOAD_GAME carries) with the binary encoding MemoryGameDao stores (Base64 text of
+ * ChessGameBinaryCodec).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameCodecBenchmarks {
+
+    @Param({
+            BenchmarkPositionCorpus.OPENING,
+            BenchmarkPositionCorpus.MIDDLEGAME_KIWIPETE,
+            BenchmarkPositionCorpus.ENDGAME_ROOK_PAWNS
+    })
+    public String positionName;
+
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String gameJson;
+    private String gameBinaryText;
+
+    @Setup(Level.Trial)
+    public void loadPosition() {
+        game = BenchmarkPositionCorpus.load(positionName);
+        gameJson = gson.toJson(game);
+        gameBinaryText = ChessGameBinaryCodec.encodeToString(game);
+    }
+
+    @Benchmark
+    public String encodeGson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public String encodeBinary() {
+        return ChessGameBinaryCodec.encodeToString(game);
+    }
+
+    @Benchmark
+    public ChessGame decodeGson() {
+        return gson.fromJson(gameJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame decodeBinary() {
+        return ChessGameBinaryCodec.decodeFromString(gameBinaryText);
+    }
+}
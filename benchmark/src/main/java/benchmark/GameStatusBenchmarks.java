@@ -0,0 +1,70 @@
+package benchmark;
+
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the checks the server runs after every move (check, checkmate, stalemate)
+ * and the board copy that used to sit underneath all of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStatusBenchmarks {
+
+    @Param({
+            BenchmarkPositionCorpus.OPENING,
+            BenchmarkPositionCorpus.MIDDLEGAME_KIWIPETE,
+            BenchmarkPositionCorpus.MIDDLEGAME_CHECKS,
+            BenchmarkPositionCorpus.ENDGAME_ROOK_PAWNS,
+            BenchmarkPositionCorpus.ENDGAME_QUEEN_ROOK,
+            BenchmarkPositionCorpus.CHECKMATE,
+            BenchmarkPositionCorpus.STALEMATE
+    })
+    public String positionName;
+
+    private ChessGame game;
+    private ChessGame.TeamColor sideToMove;
+
+    @Setup(Level.Trial)
+    public void loadPosition() {
+        game = BenchmarkPositionCorpus.load(positionName);
+        sideToMove = game.getTeamTurn();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(sideToMove);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(sideToMove);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(sideToMove);
+    }
+
+    @Benchmark
+    public Object makeDeepCopy() {
+        return game.getBoard().makeDeepCopy();
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures move generation for every piece of the side to move, both the raw
+ * ChessPiece.pieceMoves path and the legality filtered ChessGame.validMoves path
+ * that the WebSocket handler runs on every MAKE_MOVE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmarks {
+
+    @Param({
+            BenchmarkPositionCorpus.OPENING,
+            BenchmarkPositionCorpus.MIDDLEGAME_ITALIAN,
+            BenchmarkPositionCorpus.MIDDLEGAME_KIWIPETE,
+            BenchmarkPositionCorpus.MIDDLEGAME_CHECKS,
+            BenchmarkPositionCorpus.ENDGAME_ROOK_PAWNS,
+            BenchmarkPositionCorpus.ENDGAME_QUEEN_ROOK
+    })
+    public String positionName;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private final List<ChessPosition> moverPositions = new ArrayList<>();
+    private final List<ChessPiece> moverPieces = new ArrayList<>();
+    private final MoveList moveBuffer = new MoveList();
+
+    @Setup(Level.Trial)
+    public void loadPosition() {
+        game = BenchmarkPositionCorpus.load(positionName);
+        board = game.getBoard();
+        moverPositions.clear();
+        moverPieces.clear();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    moverPositions.add(position);
+                    moverPieces.add(piece);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < moverPositions.size(); i++) {
+            blackhole.consume(moverPieces.get(i).pieceMoves(board, moverPositions.get(i)));
+        }
+    }
+
+    @Benchmark
+    public int pieceMovesIntoBuffer() {
+        // Same work as pieceMoves but appended to one reused packed list, so nothing is allocated
+        moveBuffer.clear();
+        for (int i = 0; i < moverPositions.size(); i++) {
+            moverPieces.get(i).pieceMoves(board, moverPositions.get(i), moveBuffer);
+        }
+        return moveBuffer.size();
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition position : moverPositions) {
+            blackhole.consume(game.validMoves(position));
+        }
+    }
+
+    @Benchmark
+    public Object allValidMoves() {
+        return game.allValidMoves();
+    }
+}
@@ -44,7 +44,7 @@ public class ChessBoardDrawingUtility { // This class is make to draw chess boar
                     break; // Break inner loop safely
                 }
                 ChessPosition currentGridCoordinatePointPos =
-                        new ChessPosition(currentRowIntegerTrackerLoopingState, currentColumnIntegerTrackerLoopingState); // Make pos
+                        ChessPosition.of(currentRowIntegerTrackerLoopingState, currentColumnIntegerTrackerLoopingState); // Get cached pos
                 boolean isSquareHighlightedInCollectionFlag = false; // Init highlight false
                 if (highlightsParamSet != null) { // If collection is not empty basically
                     if (highlightsParamSet.contains(currentGridCoordinatePointPos)) { // If set contains pos mapping
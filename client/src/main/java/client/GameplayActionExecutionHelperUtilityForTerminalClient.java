@@ -124,7 +124,7 @@ public class GameplayActionExecutionHelperUtilityForTerminalClient {
                 columnCharacterAlphaTextExtractedValue - 'a' + 1; // Calc col index cleanly safely
         int rowNumericIndexCalculatedCleanlyValue =
                 rowCharacterNumericTextExtractedValue - '0'; // Calc row index cleanly safely
-        return new chess.ChessPosition(
+        return chess.ChessPosition.of(
                 rowNumericIndexCalculatedCleanlyValue, columnNumericIndexCalculatedCleanlyValue
         ); // Return position cleanly setup safely
     }
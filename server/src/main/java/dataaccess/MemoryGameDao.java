@@ -3,6 +3,7 @@ package dataaccess;
 import com.google.gson.Gson;
 import model.GameData;
 import chess.ChessGame;
+import chess.ChessGameBinaryCodec;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -16,6 +17,7 @@ import java.util.Collection;
  */
 public class MemoryGameDao {
 
+    // Only used to read rows saved before the binary encoding, new rows never go through Gson
     private final Gson objectToJsonTranslatorForDatabase = new Gson();
 
     // This constructor initialize the database connection and creates table if not exist
@@ -56,8 +58,8 @@ public class MemoryGameDao {
                 preparedStatementForExecutionCommand.setString(2, gameToAddInDatabaseTable.whiteUsername());
                 preparedStatementForExecutionCommand.setString(3, gameToAddInDatabaseTable.blackUsername());
                 preparedStatementForExecutionCommand.setString(4, gameToAddInDatabaseTable.gameName());
-                String jsonGameStringForDatabase = objectToJsonTranslatorForDatabase.toJson(gameToAddInDatabaseTable.game());
-                preparedStatementForExecutionCommand.setString(5, jsonGameStringForDatabase);
+                String encodedGameStringForDatabase = encodeGameForDatabaseColumnSafely(gameToAddInDatabaseTable.game());
+                preparedStatementForExecutionCommand.setString(5, encodedGameStringForDatabase);
                 preparedStatementForExecutionCommand.executeUpdate();
             }
         } catch (SQLException exceptionFromDatabaseNetworkError) {
@@ -82,8 +84,8 @@ public class MemoryGameDao {
                 try (ResultSet resultFromDatabaseQueryExecution = preparedStatementForExecutionCommand.executeQuery()) {
                     if (resultFromDatabaseQueryExecution.next()) {
                         String gameJsonObjectStringForDatabase = resultFromDatabaseQueryExecution.getString("gameJsonObjectStringForDatabase");
-                        ChessGame deserializedGameObjectForGame = objectToJsonTranslatorForDatabase
-                                .fromJson(gameJsonObjectStringForDatabase, ChessGame.class);
+                        ChessGame deserializedGameObjectForGame =
+                                decodeGameFromDatabaseColumnSafely(gameJsonObjectStringForDatabase);
                         return new GameData(
                                 resultFromDatabaseQueryExecution.getInt("gameNumericIdForDatabase"),
                                 resultFromDatabaseQueryExecution.getString("whiteUsernameStringForDatabase"),
@@ -116,8 +118,8 @@ public class MemoryGameDao {
                 try (ResultSet resultFromDatabaseQueryExecution = preparedStatementForExecutionCommand.executeQuery()) {
                     while (resultFromDatabaseQueryExecution.next()) {
                         String gameJsonObjectStringForDatabase = resultFromDatabaseQueryExecution.getString("gameJsonObjectStringForDatabase");
-                        ChessGame deserializedGameObjectForGame = objectToJsonTranslatorForDatabase
-                                .fromJson(gameJsonObjectStringForDatabase, ChessGame.class);
+                        ChessGame deserializedGameObjectForGame =
+                                decodeGameFromDatabaseColumnSafely(gameJsonObjectStringForDatabase);
                         GameData individualGameObjectFromDatabase = new GameData(
                                 resultFromDatabaseQueryExecution.getInt("gameNumericIdForDatabase"),
                                 resultFromDatabaseQueryExecution.getString("whiteUsernameStringForDatabase"),
@@ -150,8 +152,8 @@ public class MemoryGameDao {
                 preparedStatementForExecutionCommand.setString(1, updatedGameInformationObjectToSave.whiteUsername());
                 preparedStatementForExecutionCommand.setString(2, updatedGameInformationObjectToSave.blackUsername());
                 preparedStatementForExecutionCommand.setString(3, updatedGameInformationObjectToSave.gameName());
-                String jsonGameStringForDatabase = objectToJsonTranslatorForDatabase.toJson(updatedGameInformationObjectToSave.game());
-                preparedStatementForExecutionCommand.setString(4, jsonGameStringForDatabase);
+                String encodedGameStringForDatabase = encodeGameForDatabaseColumnSafely(updatedGameInformationObjectToSave.game());
+                preparedStatementForExecutionCommand.setString(4, encodedGameStringForDatabase);
                 preparedStatementForExecutionCommand.setInt(5, updatedGameInformationObjectToSave.gameID());
                 preparedStatementForExecutionCommand.executeUpdate();
             }
@@ -175,4 +177,31 @@ public class MemoryGameDao {
             throw new DataAccessException(exceptionFromDatabaseNetworkError.getMessage());
         }
     }
+
+    /**
+     * This helper turns the game into the compact Base64 binary text saved in the game column.
+     * It is about 52 characters instead of several kilobytes of reflective JSON.
+     * @param gameToEncodeForDatabaseColumn The game object to save.
+     * @return The text to store, or null when there is no game.
+     */
+    private String encodeGameForDatabaseColumnSafely(ChessGame gameToEncodeForDatabaseColumn) {
+        if (gameToEncodeForDatabaseColumn == null) { // Nothing to encode for empty game
+            return objectToJsonTranslatorForDatabase.toJson(null); // Keep the old "null" text so NOT NULL holds
+        }
+        return ChessGameBinaryCodec.encodeToString(gameToEncodeForDatabaseColumn); // Binary packed game as text
+    }
+
+    /**
+     * This helper reads the game column back into a game object.
+     * Rows written before the binary encoding hold JSON, which always starts with a brace, so they still load.
+     * @param storedGameTextFromDatabaseColumn The text from the game column.
+     * @return The game object rebuilt from the column.
+     */
+    private ChessGame decodeGameFromDatabaseColumnSafely(String storedGameTextFromDatabaseColumn) {
+        String trimmedStoredGameTextValue = storedGameTextFromDatabaseColumn.trim(); // Ignore stray whitespace
+        if (trimmedStoredGameTextValue.startsWith("{") || trimmedStoredGameTextValue.equals("null")) { // Old JSON row
+            return objectToJsonTranslatorForDatabase.fromJson(trimmedStoredGameTextValue, ChessGame.class); // Legacy path
+        }
+        return ChessGameBinaryCodec.decodeFromString(trimmedStoredGameTextValue); // Binary packed game path
+    }
 }
\ No newline at end of file
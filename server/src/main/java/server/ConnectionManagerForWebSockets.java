@@ -1,7 +1,9 @@
 package server;
 
 import io.javalin.websocket.WsContext;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -10,13 +12,16 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class ConnectionManagerForWebSockets { // This class manage active connections mapping securely
     public final Map<Integer, Map<String, WsContext>> gameNetworkConnectionsMapTrackerFlow; // Store connections safely
+    // Auth tokens that connected as spectators, kept apart so evaluation hints never reach a player safely
+    private final Map<Integer, Set<String>> gameObserverAuthTokensTrackerFlow; // Store observer tokens safely
 
     public ConnectionManagerForWebSockets() { // Constructor initialization allocation execution
         this.gameNetworkConnectionsMapTrackerFlow = new ConcurrentHashMap<>(); // Init map safely
+        this.gameObserverAuthTokensTrackerFlow = new ConcurrentHashMap<>(); // Init observer map safely
     }
 
     public void addConnectionToGamePoolSafely(
-            int gameIdParamData, String authTokenParamData, WsContext sessionContextParamData
+            int gameIdParamData, String authTokenParamData, WsContext sessionContextParamData, boolean isObserverParamData
     ) { // This function add new session to the structure cleanly
         if (!this.gameNetworkConnectionsMapTrackerFlow.containsKey(gameIdParamData)) { // If game not exist safely
             this.gameNetworkConnectionsMapTrackerFlow.put(
@@ -26,6 +31,13 @@ public class ConnectionManagerForWebSockets { // This class manage active connec
         Map<String, WsContext> specificGameConnectionsMapDataFlow =
                 this.gameNetworkConnectionsMapTrackerFlow.get(gameIdParamData); // Get map specifically safely
         specificGameConnectionsMapDataFlow.put(authTokenParamData, sessionContextParamData); // Add session memory mapping cleanly
+        if (isObserverParamData) { // If spectator connect cleanly safely
+            this.gameObserverAuthTokensTrackerFlow.computeIfAbsent(
+                    gameIdParamData, gameIdKeyData -> ConcurrentHashMap.newKeySet()
+            ).add(authTokenParamData); // Add observer token cleanly safely
+        } else { // A player reconnecting after joining is no longer a spectator safely
+            forgetObserverTokenSafely(gameIdParamData, authTokenParamData); // Remove observer token cleanly safely
+        }
     }
 
     public void removeConnectionFromGamePoolSafely(
@@ -35,6 +47,64 @@ public class ConnectionManagerForWebSockets { // This class manage active connec
             Map<String, WsContext> specificGameConnectionsMapDataFlow =
                     this.gameNetworkConnectionsMapTrackerFlow.get(gameIdParamData); // Get map specifically safely
             specificGameConnectionsMapDataFlow.remove(authTokenParamData); // Remove session cleanly safely
+            forgetObserverTokenSafely(gameIdParamData, authTokenParamData); // Remove observer token cleanly safely
+            // Drop the game entry once nobody is left, only if it is still that same empty map
+            this.gameNetworkConnectionsMapTrackerFlow.remove(
+                    gameIdParamData, Collections.<String, WsContext>emptyMap()
+            ); // Remove empty lobby cleanly safely
+        }
+    }
+
+    public void removeClosedSessionFromAllPoolsSafely(
+            WsContext closedSessionContextParamData
+    ) { // This function forget a socket that closed without sending leave so its lobby can empty safely
+        for (Map.Entry<Integer, Map<String, WsContext>> gameEntryObjectDataFlow :
+                this.gameNetworkConnectionsMapTrackerFlow.entrySet()) { // Loop every lobby safely cleanly
+            gameEntryObjectDataFlow.getValue().entrySet().removeIf(connectionEntryObjectDataFlow -> {
+                if (!connectionEntryObjectDataFlow.getValue().sessionId().equals(
+                        closedSessionContextParamData.sessionId())) { // If other socket skip safely
+                    return false; // Keep session cleanly
+                }
+                forgetObserverTokenSafely(
+                        gameEntryObjectDataFlow.getKey(), connectionEntryObjectDataFlow.getKey()
+                ); // Remove observer token cleanly safely
+                return true; // Remove the closed session cleanly safely
+            });
+            this.gameNetworkConnectionsMapTrackerFlow.remove(
+                    gameEntryObjectDataFlow.getKey(), Collections.<String, WsContext>emptyMap()
+            ); // Remove empty lobby cleanly safely
+        }
+    }
+
+    private void forgetObserverTokenSafely(
+            int gameIdParamData, String authTokenParamData
+    ) { // This function remove a spectator token and its set once empty safely
+        this.gameObserverAuthTokensTrackerFlow.computeIfPresent(gameIdParamData, (gameIdKeyData, observerTokensSetData) -> {
+            observerTokensSetData.remove(authTokenParamData); // Remove token cleanly safely
+            return observerTokensSetData.isEmpty() ? null : observerTokensSetData; // Drop empty set cleanly safely
+        });
+    }
+
+    public void broadcastMessageToObserversSafely(
+            int gameIdParamData, String jsonMessageStringPayloadTextData
+    ) { // This function send message only to spectators of the lobby explicitly
+        Set<String> observerTokensSetDataFlow = this.gameObserverAuthTokensTrackerFlow.get(gameIdParamData); // Get set safely
+        Map<String, WsContext> specificGameConnectionsMapDataFlow =
+                this.gameNetworkConnectionsMapTrackerFlow.get(gameIdParamData); // Get map specifically safely
+        if (observerTokensSetDataFlow == null || specificGameConnectionsMapDataFlow == null) { // Check guard explicitly
+            return; // Early return stop cleanly
+        }
+        for (String observerAuthTokenDataFlow : observerTokensSetDataFlow) { // Loop every spectator safely cleanly
+            WsContext sessionContextObjectDataFlow =
+                    specificGameConnectionsMapDataFlow.get(observerAuthTokenDataFlow); // Get session safely
+            if (sessionContextObjectDataFlow == null) { // If already gone skip safely
+                continue; // Skip execution explicitly cleanly
+            }
+            try { // Try catch network payload sending
+                sessionContextObjectDataFlow.send(jsonMessageStringPayloadTextData); // Send string message text reliably safely
+            } catch (Exception socketExceptionCaughtFlowData) { // Catch exception network drop
+                System.out.println("Socket closed unexpectedly safely"); // Print trace safely explicitly
+            }
         }
     }
 
@@ -56,6 +56,9 @@ public class Server { // This class define the main routing engine execution
                     exceptionObjectCaughtForSocketFlow.printStackTrace(); // Print socket error track explicitly safely
                 }
             });
+            wsConfigObjectForMappingData.onClose(wsCloseContextObjectForSessionData -> { // Setup close listener block
+                webSocketHandlerObjectInstanceExecutionFlow.onClose(wsCloseContextObjectForSessionData); // Forget socket safely
+            });
         });
         createSystemRoutesSafely(); // Register system cleanly explicitly safely
         createUserRoutesSafely(); // Register user cleanly explicitly safely
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import dataaccess.MemoryAuthDao;
 import dataaccess.MemoryGameDao;
+import io.javalin.websocket.WsCloseContext;
 import io.javalin.websocket.WsContext;
 import model.AuthData;
 import model.GameData;
@@ -26,6 +27,7 @@ public class WebSocketHandlerForChessGame { // This class process the socket mes
     private final MemoryAuthDao authDatabaseAccessObjectToolInstanceFlow;
     private final Gson jsonParserConverterObjectInstanceExecutionFlow;
     private final Set<Integer> completedGamesNumericIdTrackerSetMemoryFlow;
+    private final chess.engine.PositionEvaluator positionEvaluatorForSpectatorsInstanceFlow;
 
     public WebSocketHandlerForChessGame(
             MemoryGameDao gameDaoParamObjectInstData, MemoryAuthDao authDaoParamObjectInstData
@@ -35,6 +37,7 @@ public class WebSocketHandlerForChessGame { // This class process the socket mes
         this.managerObjectForConnectionsTrackerFlow = new ConnectionManagerForWebSockets(); // Init manager safely
         this.jsonParserConverterObjectInstanceExecutionFlow = new Gson(); // Init json reliably cleanly
         this.completedGamesNumericIdTrackerSetMemoryFlow = new HashSet<>(); // Init tracker set safely cleanly
+        this.positionEvaluatorForSpectatorsInstanceFlow = new chess.engine.PositionEvaluator(); // Init evaluator shared safely
     }
 
     public void onMessage(
@@ -55,6 +58,14 @@ public class WebSocketHandlerForChessGame { // This class process the socket mes
         }
     }
 
+    public void onClose(
+            WsCloseContext sessionCloseContextParamFlowData
+    ) { // Closed socket function forget the session so finished lobbies empty out safely
+        this.managerObjectForConnectionsTrackerFlow.removeClosedSessionFromAllPoolsSafely(
+                sessionCloseContextParamFlowData
+        ); // Remove from connection pool mapping cleanly safely
+    }
+
     private void sendErrorMessageToClientSafely(
             WsContext sessionContextParamFlowData, String errorMsgStrDataFlow
     ) { // This function send generic error back to single client safely
@@ -89,19 +100,20 @@ public class WebSocketHandlerForChessGame { // This class process the socket mes
                 sendErrorMessageToClientSafely(sessionContextParamFlowData, "Error: Invalid game numeric id provide"); // Send error
                 return; // Early return stop guard explicitly
             }
-            this.managerObjectForConnectionsTrackerFlow.addConnectionToGamePoolSafely(
-                    commandObjDataParsedFlow.getGameID(), commandObjDataParsedFlow.getAuthToken(), sessionContextParamFlowData
-            ); // Register connection safely
-            LoadGameMessage loadMessageObjPayloadFlow = new LoadGameMessage(gameDataObjParsedFlow.game()); // Create load cleanly
-            String stringLoadPayloadConvertedDataTextFlow =
-                    this.jsonParserConverterObjectInstanceExecutionFlow.toJson(loadMessageObjPayloadFlow); // Convert string securely
-            sessionContextParamFlowData.send(stringLoadPayloadConvertedDataTextFlow); // Send load back cleanly safely
             String roleStringInformationTextDataFlow = "observer"; // Default observer text safely
             if (authDataObjParsedFlow.username().equals(gameDataObjParsedFlow.whiteUsername())) { // If white matching cleanly
                 roleStringInformationTextDataFlow = "WHITE player"; // Set white text cleanly
             } else if (authDataObjParsedFlow.username().equals(gameDataObjParsedFlow.blackUsername())) { // If black matching cleanly
                 roleStringInformationTextDataFlow = "BLACK player"; // Set black text cleanly
             }
+            this.managerObjectForConnectionsTrackerFlow.addConnectionToGamePoolSafely(
+                    commandObjDataParsedFlow.getGameID(), commandObjDataParsedFlow.getAuthToken(), sessionContextParamFlowData,
+                    roleStringInformationTextDataFlow.equals("observer")
+            ); // Register connection safely
+            LoadGameMessage loadMessageObjPayloadFlow = new LoadGameMessage(gameDataObjParsedFlow.game()); // Create load cleanly
+            String stringLoadPayloadConvertedDataTextFlow =
+                    this.jsonParserConverterObjectInstanceExecutionFlow.toJson(loadMessageObjPayloadFlow); // Convert string securely
+            sessionContextParamFlowData.send(stringLoadPayloadConvertedDataTextFlow); // Send load back cleanly safely
             NotificationMessage notificationObjPayloadFlow = new NotificationMessage(
                     authDataObjParsedFlow.username() + " joined game as " + roleStringInformationTextDataFlow
             ); // Create notification payload cleanly
@@ -285,15 +297,25 @@ public class WebSocketHandlerForChessGame { // This class process the socket mes
         this.managerObjectForConnectionsTrackerFlow.broadcastMessageToOtherClientsSafely(
                 commandObjDataParsedFlow.getGameID(), commandObjDataParsedFlow.getAuthToken(), stringNotifyPayloadConvertedDataTextFlow
         ); // Broadcast to others cleanly explicitly safely
+        // The evaluation would be an engine hint for the players, so only spectators get it as its own notification
+        NotificationMessage evaluationNotificationObjPayloadFlow = new NotificationMessage(
+                "Spectator evaluation: " + describeWhoIsWinningTextSafely(gameDataObjParsedFlow.game())
+        ); // Create evaluation information cleanly safely
+        String stringEvaluationPayloadConvertedDataTextFlow =
+                this.jsonParserConverterObjectInstanceExecutionFlow.toJson(evaluationNotificationObjPayloadFlow); // Convert string securely
+        this.managerObjectForConnectionsTrackerFlow.broadcastMessageToObserversSafely(
+                commandObjDataParsedFlow.getGameID(), stringEvaluationPayloadConvertedDataTextFlow
+        ); // Broadcast to spectators cleanly explicitly safely
         checkGameCompletionConditionsLogicSafely(commandObjDataParsedFlow.getGameID(), gameDataObjParsedFlow); // Check checkmate cleanly
     }
 
     private void checkGameCompletionConditionsLogicSafely(
             int gameIdParamFlowData, GameData gameDataObjParsedFlow
     ) { // This function isolate checkmate logic to prevent deep nesting blocks explicitly safely
-        if (gameDataObjParsedFlow.game().isInCheckmate(chess.ChessGame.TeamColor.WHITE)
-                || gameDataObjParsedFlow.game().isInCheckmate(chess.ChessGame.TeamColor.BLACK)) { // If checkmate happen safely cleanly
-            this.completedGamesNumericIdTrackerSetMemoryFlow.add(gameIdParamFlowData); // Mark game over tracker cleanly safely
+        // Only the side to move can be mated or stuck after a legal move, so one status pass covers both colors
+        // The result goes in the tracker, so later messages check the set instead of working the status out again
+        chess.ChessGame.GameStatus gameStatusValueComputedOnceFlow = gameDataObjParsedFlow.game().getGameStatus(); // Status once
+        if (gameStatusValueComputedOnceFlow == chess.ChessGame.GameStatus.CHECKMATE) { // If checkmate happen safely cleanly
             NotificationMessage mateNotificationObjPayloadFlow =
                     new NotificationMessage("Checkmate condition happen game over safely"); // Create mate cleanly safely
             String stringNotifyPayloadConvertedDataTextFlow =
@@ -301,8 +323,18 @@ public class WebSocketHandlerForChessGame { // This class process the socket mes
             this.managerObjectForConnectionsTrackerFlow.broadcastMessageToAllClientsSafely(
                     gameIdParamFlowData, stringNotifyPayloadConvertedDataTextFlow
             ); // Broadcast mate reliably explicitly safely
-        } else if (gameDataObjParsedFlow.game().isInCheck(chess.ChessGame.TeamColor.WHITE)
-                || gameDataObjParsedFlow.game().isInCheck(chess.ChessGame.TeamColor.BLACK)) { // If check happen safely cleanly
+            this.completedGamesNumericIdTrackerSetMemoryFlow.add(gameIdParamFlowData); // Mark game over tracker cleanly safely
+        } else if (gameStatusValueComputedOnceFlow == chess.ChessGame.GameStatus.STALEMATE
+                || gameStatusValueComputedOnceFlow == chess.ChessGame.GameStatus.DRAW) { // If draw rule happen safely cleanly
+            NotificationMessage drawNotificationObjPayloadFlow =
+                    new NotificationMessage(describeDrawReasonTextSafely(gameDataObjParsedFlow.game())); // Create draw cleanly safely
+            String stringNotifyPayloadConvertedDataTextFlow =
+                    this.jsonParserConverterObjectInstanceExecutionFlow.toJson(drawNotificationObjPayloadFlow); // Convert string securely
+            this.managerObjectForConnectionsTrackerFlow.broadcastMessageToAllClientsSafely(
+                    gameIdParamFlowData, stringNotifyPayloadConvertedDataTextFlow
+            ); // Broadcast draw reliably explicitly safely
+            this.completedGamesNumericIdTrackerSetMemoryFlow.add(gameIdParamFlowData); // Mark game over tracker cleanly safely
+        } else if (gameStatusValueComputedOnceFlow == chess.ChessGame.GameStatus.CHECK) { // If check happen safely cleanly
             NotificationMessage checkNotificationObjPayloadFlow =
                     new NotificationMessage("Check condition happen danger safely"); // Create check cleanly safely
             String stringNotifyPayloadConvertedDataTextFlow =
@@ -312,4 +344,36 @@ public class WebSocketHandlerForChessGame { // This class process the socket mes
             ); // Broadcast check reliably explicitly safely
         }
     }
+
+    private String describeWhoIsWinningTextSafely(
+            chess.ChessGame gameObjectParamFlowData
+    ) { // This function turn the evaluation into a who is winning text for spectators cleanly safely
+        // One evaluator serves every game; its pawn cache is lock free so concurrent sockets are fine
+        int whiteScoreCentipawnsValueFlow = this.positionEvaluatorForSpectatorsInstanceFlow.evaluateForWhite(
+                gameObjectParamFlowData.getBoard()
+        ); // Score from white side cleanly safely
+        String pawnsAheadTextFlow = String.format("%.1f", Math.abs(whiteScoreCentipawnsValueFlow) / 100.0); // Pawns text
+        if (Math.abs(whiteScoreCentipawnsValueFlow) < 50) { // If less than half a pawn cleanly safely
+            return "position is about equal"; // Equal text cleanly
+        }
+        if (whiteScoreCentipawnsValueFlow > 0) { // If white better cleanly safely
+            return "WHITE is ahead by " + pawnsAheadTextFlow + " pawns"; // White text cleanly
+        }
+        return "BLACK is ahead by " + pawnsAheadTextFlow + " pawns"; // Black text cleanly
+    }
+
+    private String describeDrawReasonTextSafely(
+            chess.ChessGame gameObjectParamFlowData
+    ) { // This function pick the draw rule text for the notification cleanly safely
+        if (gameObjectParamFlowData.getGameStatus() == chess.ChessGame.GameStatus.STALEMATE) { // If no moves left cleanly safely
+            return "Stalemate condition happen draw game over safely"; // Stalemate text cleanly
+        }
+        if (gameObjectParamFlowData.isDrawByInsufficientMaterial()) { // If nobody can mate cleanly safely
+            return "Draw by insufficient material game over safely"; // Material text cleanly
+        }
+        if (gameObjectParamFlowData.isDrawByFiftyMoveRule()) { // If fifty moves without capture cleanly safely
+            return "Draw by fifty move rule game over safely"; // Fifty text cleanly
+        }
+        return "Draw by threefold repetition game over safely"; // Repetition text cleanly
+    }
 }
\ No newline at end of file
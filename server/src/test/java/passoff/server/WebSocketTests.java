@@ -24,6 +24,7 @@ public class WebSocketTests {
     private WebsocketUser black;
     private WebsocketUser observer;
     private Integer gameID;
+    private final Set<WebsocketUser> observers = new HashSet<>();
 
     @AfterAll
     static void stopServer() {
@@ -49,6 +50,7 @@ public class WebSocketTests {
         white = registerUser("white", "WHITE", "white@chess.com");
         black = registerUser("black", "BLACK", "black@chess.com");
         observer = registerUser("observer", "OBSERVER", "observer@chess.com");
+        observers.add(observer);
         gameID = createGame(white, "testGame");
         joinGame(gameID, white, ChessGame.TeamColor.WHITE);
         joinGame(gameID, black, ChessGame.TeamColor.BLACK);
@@ -229,6 +231,27 @@ public class WebSocketTests {
         leave(observer, gameID, Set.of(black), Set.of(white), "observer/second leave");
     }
 
+    @Test
+    @Order(8)
+    @DisplayName("Leave After Checkmate")
+    public void leaveAfterCheckmate() {
+        setupNormalGame();
+
+        //Fools mate setup
+        ChessMove move = new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null);
+        makeMove(white, gameID, move, true, false, Set.of(black, observer), Set.of(), "first move");
+        move = new ChessMove(new ChessPosition(7, 5), new ChessPosition(6, 5), null);
+        makeMove(black, gameID, move, true, false, Set.of(white, observer), Set.of(), "second move");
+        move = new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null);
+        makeMove(white, gameID, move, true, false, Set.of(black, observer), Set.of(), "third move");
+        move = new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null);
+        makeMove(black, gameID, move, true, true, Set.of(white, observer), Set.of(), "checkmate move");
+
+        //the game is over but everyone is still connected, so a leave still reaches the others
+        leave(white, gameID, Set.of(black, observer), Set.of(), "player leave after checkmate");
+        leave(observer, gameID, Set.of(black), Set.of(white), "observer leave after checkmate");
+    }
+
     @Test
     @Order(9)
     @DisplayName("Join After Leave Game")
@@ -320,16 +343,31 @@ public class WebSocketTests {
         int numExtraNotification = extraNotification ? 1 : 0;
         int senderExpected = 1 + numExtraNotification;
         int inGameExpected = (expectSuccess ? 2  + numExtraNotification : 0);
-        Map<String, Integer> numExpectedMessages = expectedMessages(sender, senderExpected, inGame, inGameExpected, otherClients);
+        //observers also get the evaluation of the position as a notification of its own
+        Set<WebsocketUser> inGamePlayers = new HashSet<>(inGame);
+        inGamePlayers.removeAll(observers);
+        Set<WebsocketUser> inGameObservers = new HashSet<>(inGame);
+        inGameObservers.retainAll(observers);
+        Map<String, Integer> numExpectedMessages = expectedMessages(sender, senderExpected, inGamePlayers, inGameExpected, otherClients);
+        inGameObservers.forEach(user -> numExpectedMessages.put(user.username(), expectSuccess ? inGameExpected + 1 : 0));
         Map<String, List<TestMessage>> actualMessages = environment.exchange(sender.username(), moveCommand, numExpectedMessages, waitTime);
 
+        ServerMessage.ServerMessageType[] inGameTypes;
         if(extraNotification) {
+            inGameTypes = types(LOAD_GAME, NOTIFICATION, NOTIFICATION);
             assertCommandMessages(actualMessages, expectSuccess, sender, types(LOAD_GAME, NOTIFICATION),
-                    inGame, types(LOAD_GAME, NOTIFICATION, NOTIFICATION), otherClients, description);
+                    inGamePlayers, inGameTypes, otherClients, description);
         }
         else {
+            inGameTypes = types(LOAD_GAME, NOTIFICATION);
             assertCommandMessages(actualMessages, expectSuccess, sender, types(LOAD_GAME),
-                    inGame, types(LOAD_GAME, NOTIFICATION), otherClients, description);
+                    inGamePlayers, inGameTypes, otherClients, description);
+        }
+        ServerMessage.ServerMessageType[] observerTypes = Arrays.copyOf(inGameTypes, inGameTypes.length + 1);
+        observerTypes[inGameTypes.length] = NOTIFICATION;
+        for(WebsocketUser inGameObserver : inGameObservers) {
+            assertMessages(inGameObserver.username(), expectSuccess ? observerTypes : types(),
+                    actualMessages.get(inGameObserver.username()), description);
         }
     }
 
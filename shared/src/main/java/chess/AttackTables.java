@@ -0,0 +1,80 @@
+package chess;
+
+/**
+ * Lookup tables for the pieces that always jump the same way (knights, kings and pawn captures),
+ * built once when the class loads. Asking where a piece attacks becomes one array read instead of
+ * looping over offsets and checking the board edges every time.
+ *
+ * <p>It also holds every plain ChessMove from square A to square B, created once here, so turning
+ * packed moves back into ChessMoves does not allocate for them.
+ */
+public class AttackTables {
+
+    private static final int[][] KNIGHT_JUMPS = {
+            {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
+            {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
+    };
+    private static final int[][] KING_STEPS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1},
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+    private static final int[][] WHITE_PAWN_CAPTURES = {{1, -1}, {1, 1}};
+    private static final int[][] BLACK_PAWN_CAPTURES = {{-1, -1}, {-1, 1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[ChessBoard.SQUARE_COUNT];
+    private static final long[] KING_ATTACKS = new long[ChessBoard.SQUARE_COUNT];
+    // [team index][square], white first like the board masks
+    private static final long[][] PAWN_ATTACKS = new long[2][ChessBoard.SQUARE_COUNT];
+    // [from square][to square]: the move without promotion between the two squares
+    private static final ChessMove[][] PLAIN_MOVES = new ChessMove[ChessBoard.SQUARE_COUNT][ChessBoard.SQUARE_COUNT];
+
+    static {
+        for (int square = 0; square < ChessBoard.SQUARE_COUNT; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_JUMPS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_STEPS);
+            PAWN_ATTACKS[0][square] = stepAttacks(square, WHITE_PAWN_CAPTURES);
+            PAWN_ATTACKS[1][square] = stepAttacks(square, BLACK_PAWN_CAPTURES);
+        }
+        for (int from = 0; from < ChessBoard.SQUARE_COUNT; from++) {
+            for (int to = 0; to < ChessBoard.SQUARE_COUNT; to++) {
+                PLAIN_MOVES[from][to] = new ChessMove(ChessBoard.squareToPosition(from),
+                        ChessBoard.squareToPosition(to), null);
+            }
+        }
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given team standing on the square could capture on
+     */
+    public static long pawnAttacks(int square, ChessGame.TeamColor team) {
+        return PAWN_ATTACKS[ChessBoard.teamIndex(team)][square];
+    }
+
+    /**
+     * @return the shared move object for a move between two squares without promotion
+     */
+    public static ChessMove plainMove(int fromSquare, int toSquare) {
+        return PLAIN_MOVES[fromSquare][toSquare];
+    }
+
+    private static long stepAttacks(int square, int[][] offsets) {
+        long attacks = 0L;
+        for (int[] offset : offsets) {
+            int row = square / 8 + offset[0];
+            int col = square % 8 + offset[1];
+            // Only keep the landing squares that are still on the board
+            if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                attacks |= 1L << (row * 8 + col);
+            }
+        }
+        return attacks;
+    }
+}
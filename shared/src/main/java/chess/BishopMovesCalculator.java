@@ -1,12 +1,10 @@
 package chess;
 
-import java.util.Collection;
-
 public class BishopMovesCalculator extends SlidingMovesCalculator {
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
+    public void calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece, MoveList moves) {
         // Bishops only move in diagonals
-        int[][] diagonalWays = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-        return runSlidingLogic(board, myPosition, piece, diagonalWays);
+        long diagonalWays = MagicBitboards.bishopAttacks(ChessBoard.squareIndex(myPosition), board.getOccupancy());
+        runSlidingLogic(board, myPosition, piece, diagonalWays, moves);
     }
 }
\ No newline at end of file
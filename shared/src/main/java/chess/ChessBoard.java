@@ -1,18 +1,119 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
 
+@JsonAdapter(ChessGsonAdapters.BoardAdapter.class)
 public class ChessBoard {
-    // This matrix stores the pieces. 8x8 is standard for chess.
-    private ChessPiece[][] boardStorageMatrix = new ChessPiece[8][8];
+    // Squares are numbered 0..63 starting at the bottom left (row 1, col 1) and going across each row.
+    // Bit N of every mask below stands for square N.
+    public static final int SQUARE_COUNT = 64;
+
+    // One mask per (team, piece type) pair: 2 teams x 6 types = 12 masks.
+    private long[] pieceBitboards = new long[12];
+    // One mask per team with every square that team occupies
+    private long[] teamOccupancy = new long[2];
+    // Mask of every occupied square, regardless of team
+    private long fullOccupancy;
+    // Mailbox kept next to the masks so getPiece stays a direct array lookup for old callers
+    private ChessPiece[] squareContents = new ChessPiece[SQUARE_COUNT];
+    // Zobrist key of the piece placement, updated with an XOR every time a piece is placed or removed
+    private long zobristKey;
+    // Same idea for the pawns alone, so pawn structure results can be cached by it
+    private long pawnZobristKey;
+    // Material plus piece-square bonuses (PieceSquareTables), White's total minus Black's, kept up to date the same way
+    private int midgameScore;
+    private int endgameScore;
+    // How much non-pawn material is left, from 0 (bare kings and pawns) to PieceSquareTables.MAX_PHASE and above
+    private int gamePhase;
 
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        // Must subtract 1 because computer arrays start at 0 but chess starts at 1
-        boardStorageMatrix[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = squareIndex(position);
+        // Whatever was sitting here before is overwritten, same as the old matrix assignment
+        removePieceAt(square);
+        if (piece != null) {
+            // Only the shared instances are stored, so the caller's object is never kept or changed
+            placePieceAt(square, ChessPiece.of(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     public ChessPiece getPiece(ChessPosition position) {
-        return boardStorageMatrix[position.getRow() - 1][position.getColumn() - 1];
+        return squareContents[squareIndex(position)];
+    }
+
+    public ChessPiece getPiece(int square) {
+        return squareContents[square];
+    }
+
+    /**
+     * @return mask of the squares holding pieces of the given team and type
+     */
+    public long getPieceBitboard(ChessGame.TeamColor team, ChessPiece.PieceType type) {
+        return pieceBitboards[bitboardIndex(team, type)];
+    }
+
+    /**
+     * @return mask of every square the given team occupies
+     */
+    public long getTeamOccupancy(ChessGame.TeamColor team) {
+        return teamOccupancy[teamIndex(team)];
+    }
+
+    /**
+     * @return mask of every occupied square on the board
+     */
+    public long getOccupancy() {
+        return fullOccupancy;
+    }
+
+    /**
+     * The Zobrist key of where the pieces stand. It is kept up to date by addPiece, makeMove and
+     * unmakeMove, so reading it is free. ChessGame adds the turn, castling and en passant parts.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * The Zobrist key of the pawns only, both teams. Pawn structure changes far less often than the
+     * rest of the position, which is what makes it worth caching by this key.
+     */
+    public long getPawnZobristKey() {
+        return pawnZobristKey;
+    }
+
+    /**
+     * Material and piece-square score for the middlegame, White minus Black, in centipawns.
+     * Kept up to date as pieces move, so reading it costs nothing.
+     */
+    public int getMidgameScore() {
+        return midgameScore;
+    }
+
+    /**
+     * Same as {@link #getMidgameScore()} with the endgame tables.
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return the weight of the knights, bishops, rooks and queens on the board; the starting position
+     * is {@link PieceSquareTables#MAX_PHASE}, extra promoted pieces can push it higher
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    /**
+     * Finds the king of a team with a single mask lookup instead of scanning the board.
+     *
+     * @return the square index of the king, or -1 if that team has no king on the board
+     */
+    public int findKingSquare(ChessGame.TeamColor team) {
+        long kingMask = pieceBitboards[bitboardIndex(team, ChessPiece.PieceType.KING)];
+        return kingMask == 0 ? -1 : Long.numberOfTrailingZeros(kingMask);
     }
 
     /**
@@ -22,39 +123,122 @@ public class ChessBoard {
      */
     public ChessBoard makeDeepCopy() {
         ChessBoard clonedBoard = new ChessBoard();
-        for (int r = 1; r <= 8; r++) {
-            for (int c = 1; c <= 8; c++) {
-                ChessPosition scannerPos = new ChessPosition(r, c);
-                ChessPiece foundPiece = this.getPiece(scannerPos);
-                if (foundPiece != null) {
-                    // Create a new piece with same properties to detach references
-                    ChessPiece clonedPiece = new ChessPiece(foundPiece.getTeamColor(), 
-                                                          foundPiece.getPieceType());
-                    if (foundPiece.hasMoved()) {
-                        clonedPiece.markAsMoved();
-                    }
-                    clonedBoard.addPiece(scannerPos, clonedPiece);
-                }
-            }
-        }
+        // Masks are plain numbers and pieces are shared immutable instances, so flat array copies are enough
+        clonedBoard.pieceBitboards = pieceBitboards.clone();
+        clonedBoard.teamOccupancy = teamOccupancy.clone();
+        clonedBoard.fullOccupancy = fullOccupancy;
+        clonedBoard.squareContents = squareContents.clone();
+        clonedBoard.zobristKey = zobristKey;
+        clonedBoard.pawnZobristKey = pawnZobristKey;
+        clonedBoard.midgameScore = midgameScore;
+        clonedBoard.endgameScore = endgameScore;
+        clonedBoard.gamePhase = gamePhase;
         return clonedBoard;
     }
 
+    /**
+     * Plays a move directly on this board, including the rook hop of a castle, the pawn removed by
+     * en passant and promotion. No legality checks happen here, that is ChessGame's job.
+     *
+     * @return the record that {@link #unmakeMove(MoveUndoRecord)} needs to restore the board
+     */
+    public MoveUndoRecord makeMove(ChessMove move) {
+        return makeMove(PackedMove.fromChessMove(move, this));
+    }
+
+    /**
+     * Same as {@link #makeMove(ChessMove)} for a packed move. The flags inside the packed move say
+     * whether it is a castle or en passant, so nothing has to be worked out from the board.
+     */
+    public MoveUndoRecord makeMove(int packedMove) {
+        int fromSquare = PackedMove.fromSquare(packedMove);
+        int toSquare = PackedMove.toSquare(packedMove);
+        ChessPiece movingPiece = squareContents[fromSquare];
+
+        ChessPiece capturedPiece = squareContents[toSquare];
+        int capturedSquare = capturedPiece != null ? toSquare : -1;
+        int rookFromSquare = -1;
+        int rookToSquare = -1;
+
+        // En Passant: the victim is beside the start square, on the landing square's column
+        if (PackedMove.isEnPassant(packedMove)) {
+            capturedSquare = (fromSquare & ~7) | (toSquare & 7);
+            capturedPiece = squareContents[capturedSquare];
+        }
+
+        // Castling: the rook jumps to the other side of the king
+        if (PackedMove.isCastle(packedMove)) {
+            rookFromSquare = toSquare > fromSquare ? fromSquare + 3 : fromSquare - 4;
+            rookToSquare = (fromSquare + toSquare) / 2;
+        }
+
+        if (rookFromSquare >= 0) {
+            ChessPiece rook = squareContents[rookFromSquare];
+            removePieceAt(rookFromSquare);
+            placePieceAt(rookToSquare, rook);
+        }
+        MoveUndoRecord record = new MoveUndoRecord(packedMove, movingPiece, capturedPiece, capturedSquare,
+                rookFromSquare, rookToSquare);
+
+        if (capturedSquare >= 0) {
+            removePieceAt(capturedSquare);
+        }
+        removePieceAt(fromSquare);
+
+        // If promotion happening, swap the pawn for the new upgraded unit
+        ChessPiece finalPiece = movingPiece;
+        ChessPiece.PieceType promotion = PackedMove.promotionPiece(packedMove);
+        if (promotion != null) {
+            finalPiece = ChessPiece.of(movingPiece.getTeamColor(), promotion);
+        }
+        placePieceAt(toSquare, finalPiece);
+        return record;
+    }
+
+    /**
+     * Reverts a move made by {@link #makeMove(ChessMove)}. Records must be undone in reverse order.
+     */
+    public void unmakeMove(MoveUndoRecord record) {
+        int fromSquare = PackedMove.fromSquare(record.packedMove);
+        int toSquare = PackedMove.toSquare(record.packedMove);
+
+        removePieceAt(toSquare);
+        placePieceAt(fromSquare, record.movedPiece);
+
+        if (record.capturedPiece != null) {
+            placePieceAt(record.capturedSquare, record.capturedPiece);
+        }
+
+        if (record.rookFromSquare >= 0) {
+            ChessPiece rook = squareContents[record.rookToSquare];
+            removePieceAt(record.rookToSquare);
+            placePieceAt(record.rookFromSquare, rook);
+        }
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess usually starts)
      */
     public void resetBoard() {
         // Clearing the old board to make sure no artifacts remain
-        boardStorageMatrix = new ChessPiece[8][8];
+        pieceBitboards = new long[12];
+        teamOccupancy = new long[2];
+        fullOccupancy = 0L;
+        squareContents = new ChessPiece[SQUARE_COUNT];
+        zobristKey = 0L;
+        pawnZobristKey = 0L;
+        midgameScore = 0;
+        endgameScore = 0;
+        gamePhase = 0;
 
         ChessGame.TeamColor whiteTeam = ChessGame.TeamColor.WHITE;
         ChessGame.TeamColor blackTeam = ChessGame.TeamColor.BLACK;
 
         // Putting the pawns in the front lines (rows 2 and 7)
         for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(whiteTeam, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(7, i), new ChessPiece(blackTeam, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, i), ChessPiece.of(whiteTeam, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, i), ChessPiece.of(blackTeam, ChessPiece.PieceType.PAWN));
         }
 
         // Using an array to organize the powerful pieces in the back
@@ -66,8 +250,77 @@ public class ChessBoard {
 
         // Using a loop to organize the powerful pieces in the back
         for (int i = 0; i < 8; i++) {
-            addPiece(new ChessPosition(1, i + 1), new ChessPiece(whiteTeam, noblePieces[i]));
-            addPiece(new ChessPosition(8, i + 1), new ChessPiece(blackTeam, noblePieces[i]));
+            addPiece(ChessPosition.of(1, i + 1), ChessPiece.of(whiteTeam, noblePieces[i]));
+            addPiece(ChessPosition.of(8, i + 1), ChessPiece.of(blackTeam, noblePieces[i]));
+        }
+    }
+
+    // --- Square and mask helpers shared with the move logic ---
+
+    // Must subtract 1 because computer arrays start at 0 but chess starts at 1
+    public static int squareIndex(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the position is off the board, which would otherwise
+     * land on some other square (row 1 column 9 is a2)
+     */
+    public static int squareIndex(ChessPosition position) {
+        int square = position.getSquareIndex();
+        if (square < 0) {
+            throw new IllegalArgumentException("Error: Row " + position.getRow() + " column "
+                    + position.getColumn() + " is not on the board");
+        }
+        return square;
+    }
+
+    public static ChessPosition squareToPosition(int square) {
+        return ChessPosition.ofSquare(square);
+    }
+
+    static int teamIndex(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? 0 : 1;
+    }
+
+    static int bitboardIndex(ChessGame.TeamColor team, ChessPiece.PieceType type) {
+        return teamIndex(team) * 6 + type.ordinal();
+    }
+
+    private void placePieceAt(int square, ChessPiece piece) {
+        long squareBit = 1L << square;
+        pieceBitboards[bitboardIndex(piece.getTeamColor(), piece.getPieceType())] |= squareBit;
+        teamOccupancy[teamIndex(piece.getTeamColor())] |= squareBit;
+        fullOccupancy |= squareBit;
+        squareContents[square] = piece;
+        zobristKey ^= ZobristKeys.pieceSquare(piece, square);
+        updateScores(piece, square, 1);
+    }
+
+    private void removePieceAt(int square) {
+        ChessPiece existingPiece = squareContents[square];
+        if (existingPiece == null) {
+            return;
+        }
+        long clearMask = ~(1L << square);
+        pieceBitboards[bitboardIndex(existingPiece.getTeamColor(), existingPiece.getPieceType())] &= clearMask;
+        teamOccupancy[teamIndex(existingPiece.getTeamColor())] &= clearMask;
+        fullOccupancy &= clearMask;
+        squareContents[square] = null;
+        zobristKey ^= ZobristKeys.pieceSquare(existingPiece, square);
+        updateScores(existingPiece, square, -1);
+    }
+
+    // sign is +1 when the piece arrives and -1 when it leaves
+    private void updateScores(ChessPiece piece, int square, int sign) {
+        int tableIndex = bitboardIndex(piece.getTeamColor(), piece.getPieceType());
+        // White adds to the scores and Black takes away
+        int teamSign = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? sign : -sign;
+        midgameScore += teamSign * PieceSquareTables.MIDGAME[tableIndex][square];
+        endgameScore += teamSign * PieceSquareTables.ENDGAME[tableIndex][square];
+        gamePhase += sign * PieceSquareTables.PHASE_WEIGHTS[piece.getPieceType().ordinal()];
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            pawnZobristKey ^= ZobristKeys.pieceSquare(piece, square);
         }
     }
 
@@ -80,11 +333,13 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(boardStorageMatrix, that.boardStorageMatrix);
+        // The 12 piece masks fully describe what stands where, so comparing them is enough
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(boardStorageMatrix);
+        // Equal boards always have equal Zobrist keys, and the key is already computed
+        return Long.hashCode(zobristKey);
     }
 }
\ No newline at end of file
@@ -1,21 +1,84 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
 
+@JsonAdapter(ChessGsonAdapters.GameAdapter.class)
 public class ChessGame {
 
+    // Castling rights as bit flags, one per king/rook pair
+    public static final int CASTLE_WHITE_KINGSIDE = 1;
+    public static final int CASTLE_WHITE_QUEENSIDE = 2;
+    public static final int CASTLE_BLACK_KINGSIDE = 4;
+    public static final int CASTLE_BLACK_QUEENSIDE = 8;
+    public static final int CASTLE_ALL = 15;
+
+    // a1 is a dark square, so the dark squares are the even squares of odd rows and the odd squares of even rows
+    private static final long DARK_SQUARES = 0xAA55AA55AA55AA55L;
+    // For every square, the rights that survive a move touching it (the king or rook left or was captured)
+    private static final int[] CASTLING_RIGHTS_KEPT = new int[ChessBoard.SQUARE_COUNT];
+
+    static {
+        Arrays.fill(CASTLING_RIGHTS_KEPT, CASTLE_ALL);
+        CASTLING_RIGHTS_KEPT[ChessBoard.squareIndex(1, 1)] &= ~CASTLE_WHITE_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[ChessBoard.squareIndex(1, 8)] &= ~CASTLE_WHITE_KINGSIDE;
+        CASTLING_RIGHTS_KEPT[ChessBoard.squareIndex(1, 5)] &= ~(CASTLE_WHITE_KINGSIDE | CASTLE_WHITE_QUEENSIDE);
+        CASTLING_RIGHTS_KEPT[ChessBoard.squareIndex(8, 1)] &= ~CASTLE_BLACK_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[ChessBoard.squareIndex(8, 8)] &= ~CASTLE_BLACK_KINGSIDE;
+        CASTLING_RIGHTS_KEPT[ChessBoard.squareIndex(8, 5)] &= ~(CASTLE_BLACK_KINGSIDE | CASTLE_BLACK_QUEENSIDE);
+    }
+
     private TeamColor currentTeamTurn;
     private ChessBoard currentGameBoard;
-    // Track the last move to validate En Passant (it expires after 1 turn)
-    private ChessMove lastCommittedMove;
+    // Which castles are still allowed, as CASTLE_* bits
+    private int castlingRights;
+    // The square a pawn skipped over on the last move, or -1 (En Passant expires after 1 turn)
+    private int enPassantSquare = -1;
+    // Moves since the last capture or pawn move (for the fifty-move rule) and the FEN move number
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    // Zobrist keys of the positions before each move played, oldest first, for the repetition rule.
+    // Pushing one key per move keeps the bookkeeping O(1); only the last halfmoveClock entries are ever read.
+    private long[] positionHistory;
+    private int positionHistoryLength;
+    // How often each key is in positionHistory, kept with every push and pop so the repetition rule is one lookup
+    private final RepetitionTable repetitionCounts;
+    // Status of the side to move, worked out once and kept until the position changes
+    private GameStatus cachedStatus;
+    private long cachedStatusKey;
+    // Moves played through makeMove with what it takes to reverse them, newest last, and the moves
+    // taken back by undoMove that redoMove can replay, newest first
+    private final Deque<MoveUndoRecord> playedMoves = new ArrayDeque<>();
+    private final Deque<MoveUndoRecord> undoneMoves = new ArrayDeque<>();
 
     public ChessGame() {
         // Defaulting to White starting, as per standard protocol
         this.currentTeamTurn = TeamColor.WHITE;
         this.currentGameBoard = new ChessBoard();
         this.currentGameBoard.resetBoard();
+        this.castlingRights = CASTLE_ALL;
+        this.positionHistory = new long[64];
+        this.repetitionCounts = new RepetitionTable();
+    }
+
+    // For makeDeepCopy: takes the position straight from the other game instead of setting up a start board first
+    private ChessGame(ChessGame other) {
+        this.currentGameBoard = other.currentGameBoard.makeDeepCopy();
+        this.currentTeamTurn = other.currentTeamTurn;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfmoveClock = other.halfmoveClock;
+        this.fullmoveNumber = other.fullmoveNumber;
+        this.positionHistory = Arrays.copyOf(other.positionHistory, other.positionHistory.length);
+        this.positionHistoryLength = other.positionHistoryLength;
+        this.repetitionCounts = new RepetitionTable(other.repetitionCounts);
     }
 
     public TeamColor getTeamTurn() {
@@ -24,6 +87,7 @@ public class ChessGame {
 
     public void setTeamTurn(TeamColor team) {
         this.currentTeamTurn = team;
+        this.cachedStatus = null;
     }
 
     public enum TeamColor {
@@ -31,11 +95,26 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Where the game stands for the side to move.
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        DRAW
+    }
+
     /**
      * Validates and executes a move on the board.
      * This acts like a firewall: if the move is illegal, it rejects it with an exception.
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
+        // Moves come from clients, so a square off the board is a bad move, not a programming error
+        if (!move.getStartPosition().isOnBoard() || !move.getEndPosition().isOnBoard()) {
+            throw new InvalidMoveException("Error: Move starts or ends off the board.");
+        }
         ChessPiece movingPiece = currentGameBoard.getPiece(move.getStartPosition());
 
         // Security Check 1: Is there actually a piece there?
@@ -56,35 +135,126 @@ public class ChessGame {
 
         // EXECUTION PHASE
         // Getting here, the move is valid. Commit it to the database (board).
+        playedMoves.addLast(makeUncheckedMove(move));
+        // A new move starts a new line, the old one can't be redone any more
+        undoneMoves.clear();
+    }
 
-        // Handling En Passant Kill (removing the enemy pawn that was passed)
-        if (movingPiece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            handleEnPassantExecution(move, movingPiece);
+    /**
+     * Takes back the last move played with {@link #makeMove(ChessMove)}, restoring the board,
+     * castling, en passant and the clocks from its undo record. The move can be replayed with
+     * {@link #redoMove()}.
+     *
+     * @return the move that was taken back
+     * @throws InvalidMoveException if no move has been played yet
+     */
+    public ChessMove undoMove() throws InvalidMoveException {
+        MoveUndoRecord record = playedMoves.pollLast();
+        if (record == null) {
+            throw new InvalidMoveException("Error: No move to undo.");
         }
+        unmakeMove(record);
+        undoneMoves.addFirst(record);
+        return record.getMove();
+    }
 
-        // Handling Castling Move (moving the Rook along with the King)
-        if (movingPiece.getPieceType() == ChessPiece.PieceType.KING) {
-            handleCastlingExecution(move);
+    /**
+     * Plays again the last move taken back by {@link #undoMove()}. It was legal when it was first
+     * played from this same position, so it is not validated again.
+     *
+     * @return the move that was replayed
+     * @throws InvalidMoveException if there is nothing to redo
+     */
+    public ChessMove redoMove() throws InvalidMoveException {
+        MoveUndoRecord undone = undoneMoves.pollFirst();
+        if (undone == null) {
+            throw new InvalidMoveException("Error: No move to redo.");
         }
+        // The packed move still has its castle / en passant flags, so nothing is worked out again
+        playedMoves.addLast(makeUncheckedMove(undone.getPackedMove()));
+        return undone.getMove();
+    }
 
-        // Moving the actual piece
-        ChessPiece finalPiece = movingPiece;
-        // If promotion happening, swap the pawn for the new upgraded unit
-        if (move.getPromotionPiece() != null) {
-            finalPiece = new ChessPiece(currentTeamTurn, move.getPromotionPiece());
+    public boolean canUndo() {
+        return !playedMoves.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !undoneMoves.isEmpty();
+    }
+
+    /**
+     * @return the moves played through {@link #makeMove(ChessMove)} and not undone, oldest first
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> history = new ArrayList<>(playedMoves.size());
+        for (MoveUndoRecord record : playedMoves) {
+            history.add(record.getMove());
         }
+        return history;
+    }
 
-        currentGameBoard.addPiece(move.getEndPosition(), finalPiece);
-        currentGameBoard.addPiece(move.getStartPosition(), null); // Delete from old spot
+    /**
+     * Plays a move without any validation, updating the board, the turn and the en passant state.
+     * Meant for callers that already know the move is legal (for example when walking a move tree).
+     *
+     * @return the record that {@link #unmakeMove(MoveUndoRecord)} needs to take the move back
+     */
+    public MoveUndoRecord makeUncheckedMove(ChessMove move) {
+        return makeUncheckedMove(PackedMove.fromChessMove(move, currentGameBoard));
+    }
+
+    /**
+     * Same as {@link #makeUncheckedMove(ChessMove)} for a packed move from {@link #collectValidMoves(MoveList)}.
+     */
+    public MoveUndoRecord makeUncheckedMove(int packedMove) {
+        pushPositionKey(getZobristKey());
+        cachedStatus = null;
+        // The board handles the piece shuffling (castling rook, en passant victim, promotion)
+        MoveUndoRecord record = currentGameBoard.makeMove(packedMove);
+        record.previousCastlingRights = castlingRights;
+        record.previousEnPassantSquare = enPassantSquare;
+        record.previousTeamTurn = currentTeamTurn;
+        record.previousHalfmoveClock = halfmoveClock;
+
+        // Captures and pawn moves can never be undone on the board, so they restart the clock
+        boolean irreversible = record.capturedPiece != null
+                || record.movedPiece.getPieceType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        if (currentTeamTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
 
-        // Flagging the piece as having moved (important for future Castling checks)
-        movingPiece.markAsMoved();
+        // Moving a king or rook off its home square (or capturing a rook there) ends those castles
+        castlingRights &= CASTLING_RIGHTS_KEPT[PackedMove.fromSquare(packedMove)]
+                & CASTLING_RIGHTS_KEPT[PackedMove.toSquare(packedMove)];
 
-        // Recording this move for history (needed for En Passant logic next turn)
-        lastCommittedMove = move;
+        // A double step opens the skipped square for En Passant on the next turn only
+        enPassantSquare = PackedMove.isDoublePawnStep(packedMove)
+                ? (PackedMove.fromSquare(packedMove) + PackedMove.toSquare(packedMove)) / 2 : -1;
 
         // Switching control to the other team
         currentTeamTurn = (currentTeamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return record;
+    }
+
+    /**
+     * Takes back a move played with {@link #makeUncheckedMove(ChessMove)}, restoring the board,
+     * the turn, castling, en passant and the move clocks exactly as they were.
+     */
+    public void unmakeMove(MoveUndoRecord record) {
+        currentGameBoard.unmakeMove(record);
+        castlingRights = record.previousCastlingRights;
+        enPassantSquare = record.previousEnPassantSquare;
+        currentTeamTurn = record.previousTeamTurn;
+        halfmoveClock = record.previousHalfmoveClock;
+        if (currentTeamTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+        if (positionHistoryLength > 0) {
+            repetitionCounts.remove(positionHistory[--positionHistoryLength]);
+        }
+        cachedStatus = null;
     }
 
     /**
@@ -97,53 +267,77 @@ public class ChessGame {
             return null;
         }
 
-        Collection<ChessMove> rawMoves = targetPiece.pieceMoves(currentGameBoard, startPosition);
-        Collection<ChessMove> safeMoves = new ArrayList<>();
-
-        // Injecting Special Moves (En Passant and Castling)
-        calculateEnPassantMoves(startPosition, rawMoves);
-        calculateCastlingMoves(startPosition, rawMoves);
-
-        // Simulation Loop: Try every move in a sandbox to see if King dies
-        for (ChessMove candidateMove : rawMoves) {
-            // Create a temporary reality (deep copy)
-            ChessBoard sandboxBoard = currentGameBoard.makeDeepCopy();
+        // Same legal generator as allValidMoves, just restricted to the one start square
+        MoveList safeMoves = new MoveList(32);
+        LegalMoveGenerator.generateLegalMoves(currentGameBoard, targetPiece.getTeamColor(), castlingRights,
+                enPassantSquare, 1L << ChessBoard.squareIndex(startPosition), safeMoves);
+        return safeMoves.toChessMoves();
+    }
 
-            // Execute move in sandbox
-            doSimulatedMove(sandboxBoard, candidateMove);
+    /**
+     * Every legal move for the team whose turn it is, generated in one pass.
+     */
+    public Collection<ChessMove> allValidMoves() {
+        MoveList legalMoves = new MoveList();
+        collectValidMoves(legalMoves);
+        return legalMoves.toChessMoves();
+    }
 
-            // If the King is safe in this new reality, the move is valid
-            ChessGame simulatorGame = new ChessGame();
-            simulatorGame.setBoard(sandboxBoard);
+    /**
+     * Appends every legal move for the team whose turn it is to the list, packed.
+     * Passing the same list (cleared) again and again keeps move generation allocation free.
+     */
+    public void collectValidMoves(MoveList moves) {
+        collectValidMoves(currentTeamTurn, moves);
+    }
 
-            if (!simulatorGame.isInCheck(targetPiece.getTeamColor())) {
-                safeMoves.add(candidateMove);
-            }
-        }
-        return safeMoves;
+    private void collectValidMoves(TeamColor teamColor, MoveList moves) {
+        LegalMoveGenerator.generateLegalMoves(currentGameBoard, teamColor, castlingRights,
+                enPassantSquare, LegalMoveGenerator.ALL_SQUARES, moves);
     }
 
     public boolean isInCheck(TeamColor teamColor) {
-        // Find the King's coordinates
-        ChessPosition kingPos = findKingCoordinates(currentGameBoard, teamColor);
-        if (kingPos == null) {
+        // Find the King's coordinates (a single mask lookup on the bitboards)
+        int kingSquare = currentGameBoard.findKingSquare(teamColor);
+        if (kingSquare < 0) {
             return false; // Should not happen in a valid game
         }
 
-        // Scan all enemy pieces to see if any of them can hit the King
+        // Look outward from the King instead of asking every enemy piece where it can go:
+        // a knight/pawn/king jump or a sliding ray from the King that lands on the matching enemy is a threat
         TeamColor enemyColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return LegalMoveGenerator.attackersOf(currentGameBoard, kingSquare, enemyColor,
+                currentGameBoard.getOccupancy()) != 0;
+    }
 
-        for (int r = 1; r <= 8; r++) {
-            for (int c = 1; c <= 8; c++) {
-                if (checkPieceThreat(r, c, enemyColor, kingPos)) {
-                    return true;
-                }
-            }
+    /**
+     * The status of the side to move, from a single legal move generation and a single check test.
+     * The answer is kept until the next move (or anything else that changes the position),
+     * so asking again after a move is free.
+     */
+    public GameStatus getGameStatus() {
+        long key = getZobristKey();
+        if (cachedStatus != null && cachedStatusKey == key) {
+            return cachedStatus;
+        }
+        boolean inCheck = isInCheck(currentTeamTurn);
+        GameStatus status;
+        if (hasNoValidMoves(currentTeamTurn)) {
+            status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        } else if (isDraw()) {
+            status = GameStatus.DRAW;
+        } else {
+            status = inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
         }
-        return false;
+        cachedStatus = status;
+        cachedStatusKey = key;
+        return status;
     }
 
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == currentTeamTurn) {
+            return getGameStatus() == GameStatus.CHECKMATE;
+        }
         // Checkmate = In Check + No Valid Moves
         if (!isInCheck(teamColor)) {
             return false;
@@ -152,6 +346,9 @@ public class ChessGame {
     }
 
     public boolean isInStalemate(TeamColor teamColor) {
+        if (teamColor == currentTeamTurn) {
+            return getGameStatus() == GameStatus.STALEMATE;
+        }
         // Stalemate = Not in Check + No Valid Moves
         if (isInCheck(teamColor)) {
             return false;
@@ -159,187 +356,214 @@ public class ChessGame {
         return hasNoValidMoves(teamColor);
     }
 
-    public void setBoard(ChessBoard board) {
-        this.currentGameBoard = board;
+    /**
+     * A draw the game reaches on its own: the same position for the third time, fifty moves by
+     * each side without a capture or pawn move, or too little material left to ever mate.
+     * Stalemate is reported separately by {@link #isInStalemate(TeamColor)}.
+     */
+    public boolean isDraw() {
+        return isDrawByFiftyMoveRule() || isDrawByInsufficientMaterial() || isDrawByRepetition();
     }
 
-    public ChessBoard getBoard() {
-        return currentGameBoard;
+    /**
+     * @return true when the current position (same pieces, side to move, castling and en passant)
+     * has now appeared for the third time
+     */
+    public boolean isDrawByRepetition() {
+        // Counting the whole history is exact: a position from before a capture or pawn move can't come back,
+        // and the side to move is part of the key
+        return repetitionCounts.count(getZobristKey()) >= 2;
     }
 
-    // --- Private Helper Methods (The internal "private" logic) ---
+    /**
+     * @return true after 100 halfmoves (fifty moves each) without a capture or pawn move
+     */
+    public boolean isDrawByFiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
 
-    private boolean checkPieceThreat(int row, int col, TeamColor enemyColor, ChessPosition kingPos) {
-        ChessPosition scannerPos = new ChessPosition(row, col);
-        ChessPiece foundPiece = currentGameBoard.getPiece(scannerPos);
+    /**
+     * @return true when neither side can ever mate: kings alone, a single bishop or knight,
+     * or only bishops that all stand on the same square color
+     */
+    public boolean isDrawByInsufficientMaterial() {
+        long heavyOrPawns = 0;
+        long knights = 0;
+        long bishops = 0;
+        for (TeamColor team : TeamColor.values()) {
+            heavyOrPawns |= currentGameBoard.getPieceBitboard(team, ChessPiece.PieceType.PAWN)
+                    | currentGameBoard.getPieceBitboard(team, ChessPiece.PieceType.ROOK)
+                    | currentGameBoard.getPieceBitboard(team, ChessPiece.PieceType.QUEEN);
+            knights |= currentGameBoard.getPieceBitboard(team, ChessPiece.PieceType.KNIGHT);
+            bishops |= currentGameBoard.getPieceBitboard(team, ChessPiece.PieceType.BISHOP);
+        }
+        if (heavyOrPawns != 0) {
+            return false;
+        }
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & DARK_SQUARES) == 0 || (bishops & ~DARK_SQUARES) == 0);
+    }
 
-        if (foundPiece != null && foundPiece.getTeamColor() == enemyColor) {
-            Collection<ChessMove> threats = foundPiece.pieceMoves(currentGameBoard, scannerPos);
-            for (ChessMove threat : threats) {
-                if (threat.getEndPosition().equals(kingPos)) {
-                    return true; // Threat detected!
-                }
-            }
+    /**
+     * @return the keys of the earlier positions that can still repeat (the last halfmoveClock of them),
+     * oldest first, so a stored game keeps its repetition count
+     */
+    public long[] getPositionHistory() {
+        int count = Math.min(positionHistoryLength, halfmoveClock);
+        return Arrays.copyOfRange(positionHistory, positionHistoryLength - count, positionHistoryLength);
+    }
+
+    public void setPositionHistory(long[] keys) {
+        positionHistory = Arrays.copyOf(keys, Math.max(64, keys.length * 2));
+        positionHistoryLength = keys.length;
+        repetitionCounts.clear();
+        for (long key : keys) {
+            repetitionCounts.add(key);
         }
-        return false;
+        cachedStatus = null;
     }
 
-    private boolean hasNoValidMoves(TeamColor teamColor) {
-        for (int r = 1; r <= 8; r++) {
-            for (int c = 1; c <= 8; c++) {
-                ChessPosition pos = new ChessPosition(r, c);
-                ChessPiece piece = currentGameBoard.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(pos);
-                    if (moves != null && !moves.isEmpty()) {
-                        return false; // Found an escape route
-                    }
-                }
-            }
+    /**
+     * The Zobrist key of the full position: pieces, side to move, castling rights and en passant file.
+     * The piece part is maintained incrementally by the board, the rest is a few XORs,
+     * so this is cheap enough to call after every move (position caches, repetition checks).
+     */
+    public long getZobristKey() {
+        long key = currentGameBoard.getZobristKey() ^ ZobristKeys.CASTLING_RIGHTS[castlingRights];
+        if (currentTeamTurn == TeamColor.BLACK) {
+            key ^= ZobristKeys.BLACK_TO_MOVE;
         }
-        return true; // No escape found
-    }
-
-    private ChessPosition findKingCoordinates(ChessBoard board, TeamColor color) {
-        for (int r = 1; r <= 8; r++) {
-            for (int c = 1; c <= 8; c++) {
-                ChessPosition pos = new ChessPosition(r, c);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null
-                        && piece.getPieceType() == ChessPiece.PieceType.KING
-                        && piece.getTeamColor() == color) {
-                    return pos;
-                }
-            }
+        TeamColor enemyColor = (currentTeamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        // Only count the en passant file when a pawn could really take, otherwise the position is the same
+        if (enPassantSquare >= 0 && (LegalMoveGenerator.pawnAttacks(enPassantSquare, enemyColor)
+                & currentGameBoard.getPieceBitboard(currentTeamTurn, ChessPiece.PieceType.PAWN)) != 0) {
+            key ^= ZobristKeys.EN_PASSANT_FILE[enPassantSquare % 8];
         }
-        return null;
+        return key;
     }
 
-    private void doSimulatedMove(ChessBoard board, ChessMove move) {
-        // This is a "dumb" move just for simulation (ignoring castling/en passant nuances)
-        ChessPiece piece = board.getPiece(move.getStartPosition());
-        board.addPiece(move.getEndPosition(), piece);
-        board.addPiece(move.getStartPosition(), null);
+    /**
+     * @return the castles still allowed, as CASTLE_* bits
+     */
+    public int getCastlingRights() {
+        return castlingRights;
     }
 
-    private void calculateEnPassantMoves(ChessPosition startPos, Collection<ChessMove> moves) {
-        // En Passant only applies to Pawns
-        ChessPiece myPiece = currentGameBoard.getPiece(startPos);
-        if (myPiece.getPieceType() != ChessPiece.PieceType.PAWN) {
-            return;
-        }
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & CASTLE_ALL;
+        this.cachedStatus = null;
+    }
 
-        // En Passant requires a previous move to have happened
-        if (lastCommittedMove == null) {
-            return;
-        }
+    /**
+     * @return the square a pawn can capture onto en passant this turn, or -1
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
 
-        // Logic: Did the enemy pawn just double jump?
-        ChessPosition enemyStart = lastCommittedMove.getStartPosition();
-        ChessPosition enemyEnd = lastCommittedMove.getEndPosition();
-        ChessPiece enemyPiece = currentGameBoard.getPiece(enemyEnd);
-
-        if (enemyPiece != null && enemyPiece.getPieceType() == ChessPiece.PieceType.PAWN
-                && Math.abs(enemyStart.getRow() - enemyEnd.getRow()) == 2) {
-
-            // Check if enemy is directly to my left or right
-            int colDiff = enemyEnd.getColumn() - startPos.getColumn();
-            if (startPos.getRow() == enemyEnd.getRow() && Math.abs(colDiff) == 1) {
-                // Determine direction of kill (based on my color)
-                int direction = (myPiece.getTeamColor() == TeamColor.WHITE) ? 1 : -1;
-                ChessPosition targetSpot = new ChessPosition(startPos.getRow() + direction,
-                        enemyEnd.getColumn());
-                moves.add(new ChessMove(startPos, targetSpot, null));
-            }
-        }
+    public void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+        this.cachedStatus = null;
     }
 
-    private void handleEnPassantExecution(ChessMove move, ChessPiece pawn) {
-        // If moving diagonally to an empty square, it's En Passant
-        if (move.getStartPosition().getColumn() != move.getEndPosition().getColumn()
-                && currentGameBoard.getPiece(move.getEndPosition()) == null) {
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
 
-            // The enemy pawn is "behind" the landing spot
-            int direction = (pawn.getTeamColor() == TeamColor.WHITE) ? 1 : -1;
-            ChessPosition enemyPawnPos = new ChessPosition(move.getEndPosition().getRow() - direction,
-                    move.getEndPosition().getColumn());
-            currentGameBoard.addPiece(enemyPawnPos, null); // Eliminate the target
-        }
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+        this.cachedStatus = null;
     }
 
-    private void calculateCastlingMoves(ChessPosition startPos, Collection<ChessMove> moves) {
-        ChessPiece king = currentGameBoard.getPiece(startPos);
-        if (king.getPieceType() != ChessPiece.PieceType.KING || king.hasMoved()) {
-            return;
-        }
+    /**
+     * @return the FEN move number: starts at 1 and goes up after every Black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
 
-        // King cannot castle out of check
-        if (isInCheck(king.getTeamColor())) {
-            return;
-        }
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
 
-        int row = startPos.getRow();
-
-        // Kingside Check (Right)
-        checkCastlingDirection(startPos, new int[]{row, 8}, new int[]{row, 6}, new int[]{row, 7}, moves);
-
-        // Queenside Check (Left)
-        checkCastlingDirection(startPos, new int[]{row, 1}, new int[]{row, 2}, new int[]{row, 3}, moves);
-    }
-
-    private void checkCastlingDirection(ChessPosition kingPos, int[] rookCoords,
-                                        int[] mid1Coords, int[] mid2Coords,
-                                        Collection<ChessMove> moves) {
-        ChessPosition rookPos = new ChessPosition(rookCoords[0], rookCoords[1]);
-        ChessPiece rook = currentGameBoard.getPiece(rookPos);
-
-        if (rook != null && !rook.hasMoved() && rook.getPieceType() == ChessPiece.PieceType.ROOK) {
-            ChessPosition p1 = new ChessPosition(mid1Coords[0], mid1Coords[1]);
-            ChessPosition p2 = new ChessPosition(mid2Coords[0], mid2Coords[1]);
-
-            // Need empty path
-            if (currentGameBoard.getPiece(p1) == null && currentGameBoard.getPiece(p2) == null) {
-                // Checking if the step-over square is safe:
-                ChessPosition stepOver = (kingPos.getColumn() < rookPos.getColumn())
-                        ? new ChessPosition(kingPos.getRow(), kingPos.getColumn() + 1) // Kingside
-                        : new ChessPosition(kingPos.getRow(), kingPos.getColumn() - 1); // Queenside
-
-                // Simulate step over
-                ChessBoard stepBoard = currentGameBoard.makeDeepCopy();
-                stepBoard.addPiece(stepOver, stepBoard.getPiece(kingPos));
-                stepBoard.addPiece(kingPos, null);
-                ChessGame stepGame = new ChessGame();
-                stepGame.setBoard(stepBoard);
-
-                if (!stepGame.isInCheck(rook.getTeamColor())) {
-                    // Path is safe
-                    ChessPosition target = (kingPos.getColumn() < rookPos.getColumn())
-                            ? new ChessPosition(kingPos.getRow(), kingPos.getColumn() + 2)
-                            : new ChessPosition(kingPos.getRow(), kingPos.getColumn() - 2);
-                    moves.add(new ChessMove(kingPos, target, null));
-                }
-            }
-        }
+    /**
+     * Replaces the board. A new board comes without history, so castling is allowed wherever
+     * the king and rook stand on their home squares, there is no En Passant and the clocks restart.
+     */
+    public void setBoard(ChessBoard board) {
+        this.currentGameBoard = board;
+        this.castlingRights = castlingRightsFromPlacement(board);
+        this.enPassantSquare = -1;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+        this.positionHistoryLength = 0;
+        this.repetitionCounts.clear();
+        this.cachedStatus = null;
+        this.playedMoves.clear();
+        this.undoneMoves.clear();
     }
 
-    private void handleCastlingExecution(ChessMove move) {
-        // If King moved 2 squares, move the Rook
-        if (Math.abs(move.getStartPosition().getColumn() - move.getEndPosition().getColumn()) == 2) {
-            int row = move.getStartPosition().getRow();
-            int colDiff = move.getEndPosition().getColumn() - move.getStartPosition().getColumn();
+    public ChessBoard getBoard() {
+        return currentGameBoard;
+    }
 
-            // Determine Rook positions
-            int rookStartCol = (colDiff > 0) ? 8 : 1;
-            int rookEndCol = (colDiff > 0) ? 6 : 4; // Rook lands next to King
+    /**
+     * A copy of the current position that can be played on separately (for example by another
+     * search thread): board, turn, castling, en passant, clocks and the repetition history.
+     * The undo and redo stacks are not copied.
+     */
+    public ChessGame makeDeepCopy() {
+        return new ChessGame(this);
+    }
 
-            ChessPosition rookStart = new ChessPosition(row, rookStartCol);
-            ChessPosition rookEnd = new ChessPosition(row, rookEndCol);
+    // --- Private Helper Methods (The internal "private" logic) ---
 
-            ChessPiece rook = currentGameBoard.getPiece(rookStart);
-            currentGameBoard.addPiece(rookEnd, rook);
-            currentGameBoard.addPiece(rookStart, null);
-            rook.markAsMoved();
+    private void pushPositionKey(long key) {
+        if (positionHistoryLength == positionHistory.length) {
+            positionHistory = Arrays.copyOf(positionHistory, positionHistoryLength * 2);
         }
+        positionHistory[positionHistoryLength++] = key;
+        repetitionCounts.add(key);
+    }
+
+    private boolean hasNoValidMoves(TeamColor teamColor) {
+        MoveList legalMoves = new MoveList(64);
+        collectValidMoves(teamColor, legalMoves);
+        return legalMoves.isEmpty();
+    }
+
+    /**
+     * Castling rights for a board without history: a king and rook still on their home squares
+     * are taken as never having moved.
+     */
+    private static int castlingRightsFromPlacement(ChessBoard board) {
+        int rights = 0;
+        if (isPieceAt(board, 1, 5, TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            if (isPieceAt(board, 1, 8, TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+                rights |= CASTLE_WHITE_KINGSIDE;
+            }
+            if (isPieceAt(board, 1, 1, TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+                rights |= CASTLE_WHITE_QUEENSIDE;
+            }
+        }
+        if (isPieceAt(board, 8, 5, TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            if (isPieceAt(board, 8, 8, TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+                rights |= CASTLE_BLACK_KINGSIDE;
+            }
+            if (isPieceAt(board, 8, 1, TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+                rights |= CASTLE_BLACK_QUEENSIDE;
+            }
+        }
+        return rights;
+    }
+
+    private static boolean isPieceAt(ChessBoard board, int row, int col, TeamColor color, ChessPiece.PieceType type) {
+        return (board.getPieceBitboard(color, type) & (1L << ChessBoard.squareIndex(row, col))) != 0;
     }
 
     @Override
@@ -359,6 +583,11 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(currentTeamTurn, currentGameBoard);
+        // Only the board and the turn take part in equals, so only they can take part here
+        long key = currentGameBoard.getZobristKey();
+        if (currentTeamTurn == TeamColor.BLACK) {
+            key ^= ZobristKeys.BLACK_TO_MOVE;
+        }
+        return Long.hashCode(key);
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package chess;
+
+import java.util.Base64;
+
+/**
+ * Packs a whole game into 39 bytes, for storage and for sending over the wire, instead of the
+ * reflective JSON dump of every object in the game.
+ *
+ * <pre>
+ * byte  0      format version
+ * bytes 1-32   the board, one 4-bit code per square, square 0 in the low half of byte 1
+ *              (0 = empty, 1-6 = white piece type ordinal + 1, 9-14 = black piece type ordinal + 9)
+ * byte  33     bit 0 set when Black is to move, bits 4-7 the castling rights
+ * byte  34     en passant square, or 0xFF when there is none
+ * bytes 35-36  halfmove clock (big endian)
+ * bytes 37-38  fullmove number (big endian)
+ * </pre>
+ *
+ * <p>A game with earlier positions that can still repeat is written as version 2: the same 39 bytes
+ * followed by a count byte and that many 8-byte Zobrist keys (oldest first), so the repetition rule
+ * keeps working after the game is stored and loaded again.
+ */
+public class ChessGameBinaryCodec {
+
+    public static final int FORMAT_VERSION = 1;
+    public static final int FORMAT_VERSION_WITH_HISTORY = 2;
+    public static final int ENCODED_LENGTH = 39;
+
+    private static final int BOARD_OFFSET = 1;
+    private static final int FLAGS_OFFSET = 33;
+    private static final int EN_PASSANT_OFFSET = 34;
+    private static final int HALFMOVE_OFFSET = 35;
+    private static final int FULLMOVE_OFFSET = 37;
+    private static final int NO_EN_PASSANT = 0xFF;
+    private static final int BLACK_PIECE_CODE = 8;
+    private static final int MAX_HISTORY_KEYS = 0xFF;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    public static byte[] encode(ChessGame game) {
+        long[] history = game.getPositionHistory();
+        // The fifty-move rule ends the game long before this, so dropping older keys never matters in play
+        int historyCount = Math.min(history.length, MAX_HISTORY_KEYS);
+        byte[] bytes = new byte[historyCount == 0 ? ENCODED_LENGTH : ENCODED_LENGTH + 1 + historyCount * 8];
+        bytes[0] = (byte) (historyCount == 0 ? FORMAT_VERSION : FORMAT_VERSION_WITH_HISTORY);
+
+        ChessBoard board = game.getBoard();
+        // Only the occupied squares need writing, the rest are already 0 (empty)
+        long occupied = board.getOccupancy();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            int code = pieceCode(board.getPiece(square));
+            bytes[BOARD_OFFSET + square / 2] |= (byte) ((square % 2 == 0) ? code : code << 4);
+        }
+
+        int flags = game.getCastlingRights() << 4;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= 1;
+        }
+        bytes[FLAGS_OFFSET] = (byte) flags;
+        bytes[EN_PASSANT_OFFSET] = (byte) (game.getEnPassantSquare() < 0 ? NO_EN_PASSANT : game.getEnPassantSquare());
+        writeShort(bytes, HALFMOVE_OFFSET, game.getHalfmoveClock());
+        writeShort(bytes, FULLMOVE_OFFSET, game.getFullmoveNumber());
+
+        if (historyCount > 0) {
+            bytes[ENCODED_LENGTH] = (byte) historyCount;
+            for (int i = 0; i < historyCount; i++) {
+                writeLong(bytes, ENCODED_LENGTH + 1 + i * 8, history[history.length - historyCount + i]);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a game written by {@link #encode(ChessGame)}
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes == null || bytes.length < ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Error: Encoded game is too short");
+        }
+        if (bytes[0] != FORMAT_VERSION && bytes[0] != FORMAT_VERSION_WITH_HISTORY) {
+            throw new IllegalArgumentException("Error: Unknown encoded game version " + bytes[0]);
+        }
+        int historyCount = bytes[0] == FORMAT_VERSION_WITH_HISTORY && bytes.length > ENCODED_LENGTH
+                ? bytes[ENCODED_LENGTH] & 0xFF : 0;
+        int expectedLength = bytes[0] == FORMAT_VERSION ? ENCODED_LENGTH : ENCODED_LENGTH + 1 + historyCount * 8;
+        if (bytes.length != expectedLength) {
+            throw new IllegalArgumentException("Error: Encoded game has " + bytes.length + " bytes, expected "
+                    + expectedLength);
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < ChessBoard.SQUARE_COUNT; square++) {
+            int packedPair = bytes[BOARD_OFFSET + square / 2] & 0xFF;
+            int code = (square % 2 == 0) ? packedPair & 0xF : packedPair >>> 4;
+            if (code != 0) {
+                board.addPiece(ChessPosition.ofSquare(square), pieceFor(code));
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        int flags = bytes[FLAGS_OFFSET] & 0xFF;
+        game.setTeamTurn((flags & 1) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setCastlingRights(flags >>> 4);
+        game.setEnPassantSquare(readEnPassantSquare(bytes[EN_PASSANT_OFFSET] & 0xFF));
+        game.setHalfmoveClock(readShort(bytes, HALFMOVE_OFFSET));
+        game.setFullmoveNumber(readShort(bytes, FULLMOVE_OFFSET));
+
+        long[] history = new long[historyCount];
+        for (int i = 0; i < historyCount; i++) {
+            history[i] = readLong(bytes, ENCODED_LENGTH + 1 + i * 8);
+        }
+        game.setPositionHistory(history);
+        return game;
+    }
+
+    // Only the 3rd and 6th rows can ever be skipped over by a double step, same check as the FEN parser
+    private static int readEnPassantSquare(int enPassantSquare) {
+        if (enPassantSquare == NO_EN_PASSANT) {
+            return -1;
+        }
+        int row = enPassantSquare / 8;
+        if (enPassantSquare >= ChessBoard.SQUARE_COUNT || (row != 2 && row != 5)) {
+            throw new IllegalArgumentException("Error: Bad en passant square " + enPassantSquare + " in encoded game");
+        }
+        return enPassantSquare;
+    }
+
+    /**
+     * Same as {@link #encode(ChessGame)} but as Base64 text, for places that store strings (like a TEXT column).
+     */
+    public static String encodeToString(ChessGame game) {
+        return Base64.getEncoder().encodeToString(encode(game));
+    }
+
+    public static ChessGame decodeFromString(String encodedGame) {
+        try {
+            return decode(Base64.getDecoder().decode(encodedGame));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error: Not an encoded game: " + e.getMessage());
+        }
+    }
+
+    private static int pieceCode(ChessPiece piece) {
+        int code = piece.getPieceType().ordinal() + 1;
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? code : code + BLACK_PIECE_CODE;
+    }
+
+    private static ChessPiece pieceFor(int code) {
+        ChessGame.TeamColor color = code >= BLACK_PIECE_CODE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int typeIndex = (code & (BLACK_PIECE_CODE - 1)) - 1;
+        if (typeIndex < 0 || typeIndex >= PIECE_TYPES.length) {
+            throw new IllegalArgumentException("Error: Bad piece code " + code + " in encoded game");
+        }
+        return ChessPiece.of(color, PIECE_TYPES[typeIndex]);
+    }
+
+    private static void writeShort(byte[] bytes, int offset, int value) {
+        int clamped = Math.min(Math.max(value, 0), 0xFFFF);
+        bytes[offset] = (byte) (clamped >>> 8);
+        bytes[offset + 1] = (byte) clamped;
+    }
+
+    private static int readShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
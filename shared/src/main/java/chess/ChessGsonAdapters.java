@@ -0,0 +1,381 @@
+package chess;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streaming Gson adapters for the chess classes that travel as JSON. They are attached with
+ * {@code @JsonAdapter} on the classes themselves, so every plain {@code new Gson()} (server, client
+ * and the DAO) picks them up without any registration.
+ *
+ * <ul>
+ *   <li>ChessGame is written as its full FEN string, or, when earlier positions can still repeat, as
+ *       {@code {"fen": ..., "positionHistory": [...]}} with their Zobrist keys in hex, oldest first.
+ *       The undo and redo stacks are not written.</li>
+ *   <li>ChessBoard is written as the FEN piece placement</li>
+ *   <li>ChessMove is written as a coordinate string like "e2e4" or "e7e8q"</li>
+ * </ul>
+ *
+ * <p>Readers still accept the old reflective object forms, so rows and messages written before
+ * these adapters existed keep loading.
+ */
+public class ChessGsonAdapters {
+
+    public static final class GameAdapter extends TypeAdapter<ChessGame> {
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            if (game == null) {
+                out.nullValue();
+                return;
+            }
+            long[] history = game.getPositionHistory();
+            if (history.length == 0) {
+                out.value(FenNotation.format(game));
+                return;
+            }
+            // FEN has no room for earlier positions, without them threefold repetition would be lost
+            out.beginObject();
+            out.name("fen").value(FenNotation.format(game));
+            out.name("positionHistory").beginArray();
+            for (long key : history) {
+                out.value(Long.toHexString(key));
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.STRING) {
+                String fen = in.nextString();
+                try {
+                    return FenNotation.parse(fen);
+                } catch (IllegalArgumentException e) {
+                    throw new JsonParseException(e.getMessage(), e);
+                }
+            }
+            JsonObject json = JsonParser.parseReader(in).getAsJsonObject();
+            if (json.has("fen")) {
+                return readGameWithHistory(json);
+            }
+            return readLegacyGame(json);
+        }
+    }
+
+    public static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            if (board == null) {
+                out.nullValue();
+                return;
+            }
+            out.value(FenNotation.formatPlacement(board));
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.STRING) {
+                String placement = in.nextString();
+                try {
+                    return FenNotation.parsePlacement(placement);
+                } catch (IllegalArgumentException e) {
+                    throw new JsonParseException(e.getMessage(), e);
+                }
+            }
+            return readLegacyBoard(JsonParser.parseReader(in).getAsJsonObject(), new long[1]);
+        }
+    }
+
+    public static final class MoveAdapter extends TypeAdapter<ChessMove> {
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            if (move == null) {
+                out.nullValue();
+                return;
+            }
+            if (isOnBoard(move.getStartPosition()) && isOnBoard(move.getEndPosition())) {
+                out.value(coordinateText(move));
+                return;
+            }
+            // A move typed off the edge of the board has no square names, so it goes out as plain numbers
+            // and the server turns it down like any other bad move
+            out.beginObject();
+            writePosition(out.name("startPosition"), move.getStartPosition());
+            writePosition(out.name("endPosition"), move.getEndPosition());
+            if (move.getPromotionPiece() != null) {
+                out.name("promotionPiece").value(move.getPromotionPiece().name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.STRING) {
+                return parseCoordinateText(in.nextString());
+            }
+            return readMoveObject(JsonParser.parseReader(in).getAsJsonObject());
+        }
+    }
+
+    // --- Moves ---
+
+    private static String coordinateText(ChessMove move) {
+        String text = FenNotation.squareName(move.getStartPosition().getSquareIndex())
+                + FenNotation.squareName(move.getEndPosition().getSquareIndex());
+        if (move.getPromotionPiece() != null) {
+            text += Character.toLowerCase(FenNotation.pieceSymbol(
+                    ChessPiece.of(ChessGame.TeamColor.BLACK, move.getPromotionPiece())));
+        }
+        return text;
+    }
+
+    private static ChessMove parseCoordinateText(String text) {
+        int fromSquare = text.length() >= 4 ? FenNotation.parseSquareName(text.substring(0, 2)) : -1;
+        int toSquare = text.length() >= 4 ? FenNotation.parseSquareName(text.substring(2, 4)) : -1;
+        if (fromSquare < 0 || toSquare < 0 || text.length() > 5) {
+            throw new JsonParseException("Error: Bad move text " + text);
+        }
+        ChessPiece.PieceType promotion = null;
+        if (text.length() == 5) {
+            try {
+                promotion = FenNotation.pieceTypeFor(text.charAt(4));
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+        return new ChessMove(ChessPosition.ofSquare(fromSquare), ChessPosition.ofSquare(toSquare), promotion);
+    }
+
+    // Takes both the names the web page sends (startPosition, row, column) and the old reflective field names
+    private static ChessMove readMoveObject(JsonObject json) {
+        ChessPosition start = readPosition(firstPresent(json, "startPosition", "startingLocation"));
+        ChessPosition end = readPosition(firstPresent(json, "endPosition", "endingLocation"));
+        JsonElement promotion = firstPresent(json, "promotionPiece", "typeOfPromotion");
+        ChessPiece.PieceType promotionType = promotion == null ? null : readEnum(promotion, ChessPiece.PieceType.class);
+        return new ChessMove(start, end, promotionType);
+    }
+
+    private static boolean isOnBoard(ChessPosition position) {
+        return position != null && position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
+    private static void writePosition(JsonWriter out, ChessPosition position) throws IOException {
+        if (position == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("row").value(position.getRow());
+        out.name("column").value(position.getColumn());
+        out.endObject();
+    }
+
+    private static ChessPosition readPosition(JsonElement element) {
+        if (element == null) {
+            return null;
+        }
+        if (element.isJsonPrimitive()) {
+            int square = FenNotation.parseSquareName(element.getAsString());
+            if (square < 0) {
+                throw new JsonParseException("Error: Bad square name " + element.getAsString());
+            }
+            return ChessPosition.ofSquare(square);
+        }
+        JsonObject json = element.getAsJsonObject();
+        JsonElement row = firstPresent(json, "row", "rowLocationOnBoard");
+        JsonElement column = firstPresent(json, "column", "colLocationOnBoard");
+        if (row == null || column == null) {
+            throw new JsonParseException("Error: Position needs a row and a column: " + json);
+        }
+        return ChessPosition.of(row.getAsInt(), column.getAsInt());
+    }
+
+    private static ChessGame readGameWithHistory(JsonObject json) {
+        try {
+            ChessGame game = FenNotation.parse(json.get("fen").getAsString());
+            JsonElement historyJson = json.get("positionHistory");
+            if (historyJson != null && historyJson.isJsonArray()) {
+                JsonArray keys = historyJson.getAsJsonArray();
+                long[] history = new long[keys.size()];
+                for (int i = 0; i < history.length; i++) {
+                    history[i] = Long.parseUnsignedLong(keys.get(i).getAsString(), 16);
+                }
+                game.setPositionHistory(history);
+            }
+            return game;
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+
+    // --- Legacy boards and games ---
+
+    /**
+     * Reads a board dumped reflectively, either the old 8x8 {@code boardStorageMatrix} or the flat
+     * {@code squareContents} array. The old pieces carried a "has moved" flag; the squares of those
+     * pieces are set in {@code movedSquares[0]} so the game can take the castling rights away.
+     */
+    private static ChessBoard readLegacyBoard(JsonObject json, long[] movedSquares) {
+        ChessBoard board = new ChessBoard();
+        JsonElement matrix = json.get("boardStorageMatrix");
+        JsonElement flat = json.get("squareContents");
+        if (matrix != null && matrix.isJsonArray()) {
+            JsonArray rows = matrix.getAsJsonArray();
+            for (int r = 0; r < rows.size() && r < 8; r++) {
+                JsonArray cells = rows.get(r).getAsJsonArray();
+                for (int c = 0; c < cells.size() && c < 8; c++) {
+                    readLegacyPiece(board, ChessBoard.squareIndex(r + 1, c + 1), cells.get(c), movedSquares);
+                }
+            }
+        } else if (flat != null && flat.isJsonArray()) {
+            JsonArray squares = flat.getAsJsonArray();
+            for (int square = 0; square < squares.size() && square < ChessBoard.SQUARE_COUNT; square++) {
+                readLegacyPiece(board, square, squares.get(square), movedSquares);
+            }
+        } else {
+            throw new JsonParseException("Error: Unknown board format " + json);
+        }
+        return board;
+    }
+
+    private static void readLegacyPiece(ChessBoard board, int square, JsonElement element, long[] movedSquares) {
+        if (element == null || element.isJsonNull()) {
+            return;
+        }
+        JsonObject json = element.getAsJsonObject();
+        ChessGame.TeamColor color = readEnum(json.get("myTeamColor"), ChessGame.TeamColor.class);
+        ChessPiece.PieceType type = readEnum(json.get("myPieceType"), ChessPiece.PieceType.class);
+        if (color == null || type == null) {
+            throw new JsonParseException("Error: Piece needs a color and a type: " + json);
+        }
+        board.addPiece(ChessPosition.ofSquare(square), ChessPiece.of(color, type));
+        JsonElement moved = json.get("hasExecutedMove");
+        if (moved != null && moved.isJsonPrimitive() && moved.getAsBoolean()) {
+            movedSquares[0] |= 1L << square;
+        }
+    }
+
+    /**
+     * Reads a game dumped reflectively. The fields added later (castling rights, en passant, clocks)
+     * are used when they are there; for the oldest rows they are worked out from the moved flags on
+     * the pieces and from the last move played.
+     */
+    private static ChessGame readLegacyGame(JsonObject json) {
+        JsonElement boardJson = json.get("currentGameBoard");
+        if (boardJson == null || !boardJson.isJsonObject()) {
+            throw new JsonParseException("Error: Game has no board: " + json);
+        }
+        long[] movedSquares = new long[1];
+        ChessBoard board = readLegacyBoard(boardJson.getAsJsonObject(), movedSquares);
+
+        ChessGame game = new ChessGame();
+        // setBoard already grants every right whose king and rook stand on their home squares
+        game.setBoard(board);
+        ChessGame.TeamColor turn = readEnum(json.get("currentTeamTurn"), ChessGame.TeamColor.class);
+        game.setTeamTurn(turn == null ? ChessGame.TeamColor.WHITE : turn);
+
+        JsonElement rights = json.get("castlingRights");
+        if (rights != null && rights.isJsonPrimitive()) {
+            game.setCastlingRights(rights.getAsInt());
+        } else {
+            game.setCastlingRights(game.getCastlingRights() & ~rightsLostTo(movedSquares[0]));
+        }
+
+        JsonElement enPassant = json.get("enPassantSquare");
+        if (enPassant != null && enPassant.isJsonPrimitive()) {
+            game.setEnPassantSquare(enPassant.getAsInt());
+        } else if (json.get("lastCommittedMove") != null && json.get("lastCommittedMove").isJsonObject()) {
+            game.setEnPassantSquare(enPassantAfter(board, readMoveObject(json.getAsJsonObject("lastCommittedMove"))));
+        }
+
+        JsonElement halfmoveClock = json.get("halfmoveClock");
+        if (halfmoveClock != null && halfmoveClock.isJsonPrimitive()) {
+            game.setHalfmoveClock(halfmoveClock.getAsInt());
+        }
+        JsonElement fullmoveNumber = json.get("fullmoveNumber");
+        if (fullmoveNumber != null && fullmoveNumber.isJsonPrimitive()) {
+            game.setFullmoveNumber(fullmoveNumber.getAsInt());
+        }
+        return game;
+    }
+
+    // A king that has moved loses both sides, a rook that has moved loses only its own side
+    private static int rightsLostTo(long movedSquares) {
+        int lost = 0;
+        lost |= isSet(movedSquares, ChessBoard.squareIndex(1, 5))
+                ? ChessGame.CASTLE_WHITE_KINGSIDE | ChessGame.CASTLE_WHITE_QUEENSIDE : 0;
+        lost |= isSet(movedSquares, ChessBoard.squareIndex(1, 8)) ? ChessGame.CASTLE_WHITE_KINGSIDE : 0;
+        lost |= isSet(movedSquares, ChessBoard.squareIndex(1, 1)) ? ChessGame.CASTLE_WHITE_QUEENSIDE : 0;
+        lost |= isSet(movedSquares, ChessBoard.squareIndex(8, 5))
+                ? ChessGame.CASTLE_BLACK_KINGSIDE | ChessGame.CASTLE_BLACK_QUEENSIDE : 0;
+        lost |= isSet(movedSquares, ChessBoard.squareIndex(8, 8)) ? ChessGame.CASTLE_BLACK_KINGSIDE : 0;
+        lost |= isSet(movedSquares, ChessBoard.squareIndex(8, 1)) ? ChessGame.CASTLE_BLACK_QUEENSIDE : 0;
+        return lost;
+    }
+
+    private static boolean isSet(long mask, int square) {
+        return (mask & (1L << square)) != 0;
+    }
+
+    // The old games kept the last move instead of an en passant square; a pawn double step means the
+    // square it skipped can still be captured on
+    private static int enPassantAfter(ChessBoard board, ChessMove lastMove) {
+        if (!isOnBoard(lastMove.getStartPosition()) || !isOnBoard(lastMove.getEndPosition())) {
+            return -1;
+        }
+        ChessPiece movedPiece = board.getPiece(lastMove.getEndPosition());
+        int rowDistance = lastMove.getEndPosition().getRow() - lastMove.getStartPosition().getRow();
+        if (movedPiece == null || movedPiece.getPieceType() != ChessPiece.PieceType.PAWN
+                || Math.abs(rowDistance) != 2
+                || lastMove.getEndPosition().getColumn() != lastMove.getStartPosition().getColumn()) {
+            return -1;
+        }
+        return (lastMove.getStartPosition().getSquareIndex() + lastMove.getEndPosition().getSquareIndex()) / 2;
+    }
+
+    // --- Small JSON helpers ---
+
+    private static JsonElement firstPresent(JsonObject json, String name, String legacyName) {
+        JsonElement element = json.get(name);
+        if (element == null || element.isJsonNull()) {
+            element = json.get(legacyName);
+        }
+        return element == null || element.isJsonNull() ? null : element;
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonElement element, Class<E> type) {
+        if (element == null || element.isJsonNull()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, element.getAsString());
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Error: Unknown " + type.getSimpleName() + " " + element.getAsString());
+        }
+    }
+}
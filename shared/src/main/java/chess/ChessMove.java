@@ -1,7 +1,10 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Objects;
 
+@JsonAdapter(ChessGsonAdapters.MoveAdapter.class)
 public class ChessMove {
     // Saving the start and end to know the trajectory of the piece
     private final ChessPosition startingLocation;
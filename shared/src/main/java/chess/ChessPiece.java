@@ -1,20 +1,48 @@
 package chess;
 
 import java.util.Collection;
-import java.util.Objects;
+import java.util.EnumMap;
+import java.util.Map;
 
 public class ChessPiece {
 
     private final ChessGame.TeamColor myTeamColor;
     private final PieceType myPieceType;
-    // Tracking if this unit has been deployed/moved to determine castling eligibility
-    private boolean hasExecutedMove = false;
+
+    // Pieces never change, so one shared instance per (color, type) is enough: 12 in total.
+    // Indexed like the board masks: team index * 6 + type ordinal.
+    private static final ChessPiece[] SHARED_PIECES = new ChessPiece[12];
+
+    // The calculators keep no state, so one of each is shared by every piece
+    private static final Map<PieceType, PieceMovesCalculator> MOVES_CALCULATORS = new EnumMap<>(PieceType.class);
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                SHARED_PIECES[ChessBoard.bitboardIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+        MOVES_CALCULATORS.put(PieceType.KING, new KingMovesCalculator());
+        MOVES_CALCULATORS.put(PieceType.QUEEN, new QueenMovesCalculator());
+        MOVES_CALCULATORS.put(PieceType.BISHOP, new BishopMovesCalculator());
+        MOVES_CALCULATORS.put(PieceType.KNIGHT, new KnightMovesCalculator());
+        MOVES_CALCULATORS.put(PieceType.ROOK, new RookMovesCalculator());
+        MOVES_CALCULATORS.put(PieceType.PAWN, new PawnMovesCalculator());
+    }
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.myTeamColor = pieceColor;
         this.myPieceType = type;
     }
 
+    /**
+     * Returns the shared instance for the color and type instead of creating a new piece.
+     * The board stores only these, so copying a board never copies pieces.
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return SHARED_PIECES[ChessBoard.bitboardIndex(pieceColor, type)];
+    }
+
     public enum PieceType {
         KING,
         QUEEN,
@@ -32,44 +60,25 @@ public class ChessPiece {
         return myPieceType;
     }
 
-    // Checking the logs to see if this piece has moved before
-    public boolean hasMoved() {
-        return hasExecutedMove;
+    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
+        // Using an interface here to allow polymorphism for the movement logic
+        return movesCalculatorFor(myPieceType).calculateMoves(board, myPosition, this);
     }
 
-    // Marking the piece as deployed so  don't accidentally castle with it later
-    public void markAsMoved() {
-        this.hasExecutedMove = true;
+    /**
+     * Same as {@link #pieceMoves(ChessBoard, ChessPosition)} but appends packed moves to the
+     * caller's list, so it can run in a loop without allocating anything.
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, MoveList moves) {
+        movesCalculatorFor(myPieceType).calculateMoves(board, myPosition, this, moves);
     }
 
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        // Using an interface here to allow polymorphism for the movement logic
-        PieceMovesCalculator movementCalculator;
-
-        switch (myPieceType) {
-            case KING:
-                movementCalculator = new KingMovesCalculator();
-                break;
-            case ROOK:
-                movementCalculator = new RookMovesCalculator();
-                break;
-            case BISHOP:
-                movementCalculator = new BishopMovesCalculator();
-                break;
-            case KNIGHT:
-                movementCalculator = new KnightMovesCalculator();
-                break;
-            case QUEEN:
-                movementCalculator = new QueenMovesCalculator();
-                break;
-            case PAWN:
-                movementCalculator = new PawnMovesCalculator();
-                break;
-            default:
-                throw new RuntimeException("Error: Unknown piece type detected!");
+    private static PieceMovesCalculator movesCalculatorFor(PieceType type) {
+        PieceMovesCalculator movementCalculator = MOVES_CALCULATORS.get(type);
+        if (movementCalculator == null) {
+            throw new RuntimeException("Error: Unknown piece type detected!");
         }
-
-        return movementCalculator.calculateMoves(board, myPosition, this);
+        return movementCalculator;
     }
 
     @Override
@@ -81,16 +90,14 @@ public class ChessPiece {
             return false;
         }
         ChessPiece that = (ChessPiece) o;
-        // Ignore 'hasExecutedMove' for equality checks.
-        // The tests generate fresh boards where pieces haven't moved.
-        // If compare this flag, a moved King won't match a fresh King, causing test failures.
+        // A piece is only its color and type (castling eligibility lives in ChessGame)
         return myTeamColor == that.myTeamColor && myPieceType == that.myPieceType;
     }
 
     @Override
     public int hashCode() {
-        // Hashing only the identity, not the state history
-        return Objects.hash(myTeamColor, myPieceType);
+        // Same index as the shared instance table, unique per color and type
+        return ChessBoard.bitboardIndex(myTeamColor, myPieceType);
     }
 
     @Override
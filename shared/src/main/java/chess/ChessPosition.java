@@ -1,15 +1,48 @@
 package chess;
 
-import java.util.Objects;
-
 public class ChessPosition {
     // I am using these names to be very clear about what variable is what
     private final int rowLocationOnBoard;
     private final int colLocationOnBoard;
+    // Worked out once here, since positions are looked up and hashed far more often than they are made
+    private final int squareIndex;
+    private final int hashCode;
+
+    // One shared instance per board square, indexed like ChessBoard (a1 = 0 ... h8 = 63)
+    private static final ChessPosition[] SQUARES = new ChessPosition[ChessBoard.SQUARE_COUNT];
+
+    static {
+        for (int square = 0; square < SQUARES.length; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
 
     public ChessPosition(int row, int col) {
         this.rowLocationOnBoard = row;
         this.colLocationOnBoard = col;
+        boolean onBoard = row >= 1 && row <= 8 && col >= 1 && col <= 8;
+        // Must subtract 1 because computer arrays start at 0 but chess starts at 1
+        this.squareIndex = onBoard ? (row - 1) * 8 + (col - 1) : -1;
+        // Every square on the board gets its own small number, no boxing or array like Objects.hash
+        this.hashCode = row * 31 + col;
+    }
+
+    /**
+     * Returns the shared instance for a square instead of allocating a new position.
+     * Coordinates off the board still work, they just get a fresh object.
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @return the shared instance for a square index (0 = bottom left, 63 = top right)
+     */
+    public static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
     }
 
     /**
@@ -28,6 +61,21 @@ public class ChessPosition {
         return colLocationOnBoard;
     }
 
+    /**
+     * @return true when both coordinates are between 1 and 8
+     */
+    public boolean isOnBoard() {
+        return squareIndex >= 0;
+    }
+
+    /**
+     * @return the square index used by ChessBoard (0 = row 1 col 1, 63 = row 8 col 8),
+     * or -1 for a position off the board
+     */
+    public int getSquareIndex() {
+        return squareIndex;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -43,6 +91,6 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(rowLocationOnBoard, colLocationOnBoard);
+        return hashCode;
     }
 }
\ No newline at end of file
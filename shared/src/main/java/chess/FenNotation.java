@@ -0,0 +1,227 @@
+package chess;
+
+/**
+ * Reads and writes games in Forsyth-Edwards Notation (FEN), the one-line text format chess tools use
+ * for a position, for example the start position:
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ *
+ * <p>The six fields are the pieces (row 8 first), the side to move, the castling rights, the
+ * en passant square, the halfmove clock and the move number, so everything a game needs to carry
+ * on (castling and en passant included) survives the round trip.
+ */
+public class FenNotation {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * Builds a game from a FEN string. The last four fields may be left out; they then default to
+     * no castling, no en passant and clocks 0 and 1.
+     *
+     * @throws IllegalArgumentException if the text is not valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        if (fen == null || fen.isBlank()) {
+            throw new IllegalArgumentException("Error: Empty FEN string");
+        }
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2 || fields.length > 6) {
+            throw new IllegalArgumentException("Error: FEN needs between 2 and 6 fields: " + fen);
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(parsePlacement(fields[0]));
+        game.setTeamTurn(parseSideToMove(fields[1]));
+        game.setCastlingRights(fields.length > 2 ? parseCastlingRights(fields[2]) : 0);
+        game.setEnPassantSquare(fields.length > 3 ? parseEnPassantSquare(fields[3]) : -1);
+        game.setHalfmoveClock(fields.length > 4 ? parseNumber(fields[4], 0) : 0);
+        game.setFullmoveNumber(fields.length > 5 ? parseNumber(fields[5], 1) : 1);
+        return game;
+    }
+
+    /**
+     * @return the full six-field FEN string of the game's current position
+     */
+    public static String format(ChessGame game) {
+        StringBuilder fen = new StringBuilder(90);
+        appendPlacement(game.getBoard(), fen);
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int rights = game.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            appendIf(fen, rights, ChessGame.CASTLE_WHITE_KINGSIDE, 'K');
+            appendIf(fen, rights, ChessGame.CASTLE_WHITE_QUEENSIDE, 'Q');
+            appendIf(fen, rights, ChessGame.CASTLE_BLACK_KINGSIDE, 'k');
+            appendIf(fen, rights, ChessGame.CASTLE_BLACK_QUEENSIDE, 'q');
+        }
+
+        int enPassantSquare = game.getEnPassantSquare();
+        fen.append(' ').append(enPassantSquare < 0 ? "-" : squareName(enPassantSquare));
+        fen.append(' ').append(game.getHalfmoveClock());
+        fen.append(' ').append(game.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    /**
+     * Reads only the piece placement field into a new board.
+     */
+    public static ChessBoard parsePlacement(String placement) {
+        String[] ranks = placement.split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("Error: FEN placement needs 8 ranks: " + placement);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int rankIndex = 0; rankIndex < ranks.length; rankIndex++) {
+            int row = 8 - rankIndex;
+            int col = 1;
+            for (char symbol : ranks[rankIndex].toCharArray()) {
+                if (symbol >= '1' && symbol <= '8') {
+                    col += symbol - '0';
+                    continue;
+                }
+                if (col > 8) {
+                    throw new IllegalArgumentException("Error: FEN rank " + row + " has more than 8 squares");
+                }
+                ChessGame.TeamColor color = Character.isUpperCase(symbol)
+                        ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, pieceTypeFor(symbol)));
+                col++;
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Error: FEN rank " + row + " does not have 8 squares");
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return only the piece placement field of the board, for example "8/8/8/8/8/8/8/4K2k"
+     */
+    public static String formatPlacement(ChessBoard board) {
+        StringBuilder placement = new StringBuilder(72);
+        appendPlacement(board, placement);
+        return placement.toString();
+    }
+
+    public static char pieceSymbol(ChessPiece piece) {
+        char symbol = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case ROOK -> 'r';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(symbol) : symbol;
+    }
+
+    public static ChessPiece.PieceType pieceTypeFor(char symbol) {
+        return switch (Character.toLowerCase(symbol)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Error: Unknown piece symbol " + symbol);
+        };
+    }
+
+    /**
+     * @return the square in algebraic form, for example 0 -> "a1" and 63 -> "h8"
+     */
+    public static String squareName(int square) {
+        return "" + (char) ('a' + square % 8) + (square / 8 + 1);
+    }
+
+    /**
+     * @return the square index of an algebraic name like "e4", or -1 if the text is not a square
+     */
+    public static int parseSquareName(String name) {
+        if (name.length() != 2 || name.charAt(0) < 'a' || name.charAt(0) > 'h'
+                || name.charAt(1) < '1' || name.charAt(1) > '8') {
+            return -1;
+        }
+        return ChessBoard.squareIndex(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+
+    private static void appendPlacement(ChessBoard board, StringBuilder fen) {
+        for (int row = 8; row >= 1; row--) {
+            int emptyRun = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessBoard.squareIndex(row, col));
+                if (piece == null) {
+                    emptyRun++;
+                    continue;
+                }
+                if (emptyRun > 0) {
+                    fen.append(emptyRun);
+                    emptyRun = 0;
+                }
+                fen.append(pieceSymbol(piece));
+            }
+            if (emptyRun > 0) {
+                fen.append(emptyRun);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+    }
+
+    private static ChessGame.TeamColor parseSideToMove(String field) {
+        return switch (field) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Error: FEN side to move must be w or b, got " + field);
+        };
+    }
+
+    private static int parseCastlingRights(String field) {
+        if (field.equals("-")) {
+            return 0;
+        }
+        int rights = 0;
+        for (char symbol : field.toCharArray()) {
+            rights |= switch (symbol) {
+                case 'K' -> ChessGame.CASTLE_WHITE_KINGSIDE;
+                case 'Q' -> ChessGame.CASTLE_WHITE_QUEENSIDE;
+                case 'k' -> ChessGame.CASTLE_BLACK_KINGSIDE;
+                case 'q' -> ChessGame.CASTLE_BLACK_QUEENSIDE;
+                default -> throw new IllegalArgumentException("Error: Unknown FEN castling symbol " + symbol);
+            };
+        }
+        return rights;
+    }
+
+    private static int parseEnPassantSquare(String field) {
+        if (field.equals("-")) {
+            return -1;
+        }
+        // Only the 3rd and 6th rows can ever be skipped over by a double step
+        if (field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h'
+                || (field.charAt(1) != '3' && field.charAt(1) != '6')) {
+            throw new IllegalArgumentException("Error: Bad FEN en passant square " + field);
+        }
+        return ChessBoard.squareIndex(field.charAt(1) - '0', field.charAt(0) - 'a' + 1);
+    }
+
+    private static int parseNumber(String field, int minimum) {
+        try {
+            int value = Integer.parseInt(field);
+            if (value < minimum) {
+                throw new IllegalArgumentException("Error: FEN counter below " + minimum + ": " + field);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Error: FEN counter is not a number: " + field);
+        }
+    }
+
+    private static void appendIf(StringBuilder fen, int rights, int right, char symbol) {
+        if ((rights & right) != 0) {
+            fen.append(symbol);
+        }
+    }
+}
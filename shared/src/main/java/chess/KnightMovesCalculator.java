@@ -1,34 +1,13 @@
 package chess;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class KnightMovesCalculator implements PieceMovesCalculator {
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
-        Collection<ChessMove> legalMoves = new ArrayList<>();
-
-        // This is the L shape moves logic.
-        int[][] jumpPatterns = {
-                {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
-                {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
-        };
-
-        for (int[] jump : jumpPatterns) {
-            int targetRow = myPosition.getRow() + jump[0];
-            int targetCol = myPosition.getColumn() + jump[1];
-
-            // Verifying if the jump lands inside the map (board)
-            if (targetRow >= 1 && targetRow <= 8 && targetCol >= 1 && targetCol <= 8) {
-                ChessPosition landingSpot = new ChessPosition(targetRow, targetCol);
-                ChessPiece existingPiece = board.getPiece(landingSpot);
+    public void calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece, MoveList moves) {
+        // The L shape jumps from this square are precomputed, already cut at the board edges
+        int knightSquare = ChessBoard.squareIndex(myPosition);
 
-                // Knights can only land if the spot is empty or has an enemy
-                if (existingPiece == null || existingPiece.getTeamColor() != piece.getTeamColor()) {
-                    legalMoves.add(new ChessMove(myPosition, landingSpot, null));
-                }
-            }
-        }
-        return legalMoves;
+        // Knights can only land if the spot is empty or has an enemy
+        long landingSpots = AttackTables.knightAttacks(knightSquare) & ~board.getTeamOccupancy(piece.getTeamColor());
+        moves.addMovesToTargets(knightSquare, landingSpots);
     }
 }
\ No newline at end of file
@@ -0,0 +1,300 @@
+package chess;
+
+import java.util.Collection;
+
+/**
+ * Generates only legal moves for one team.
+ * Instead of trying every pseudo-legal move and asking isInCheck afterwards, the checking pieces and
+ * the pinned pieces are worked out once from the king square, and every move is filtered against them.
+ */
+public class LegalMoveGenerator {
+
+    public static final long ALL_SQUARES = -1L;
+
+    private static final int[][] KING_STEPS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1},
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    // BETWEEN[a][b]: squares strictly between two aligned squares. LINE[a][b]: the whole line through both.
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final ChessPiece.PieceType[] PROMOTION_CHOICES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT
+    };
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int[] direction : KING_STEPS) {
+                long walked = 0L;
+                int row = from / 8 + direction[0];
+                int col = from % 8 + direction[1];
+                while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    int to = row * 8 + col;
+                    BETWEEN[from][to] = walked;
+                    walked |= 1L << to;
+                    row += direction[0];
+                    col += direction[1];
+                }
+                // The full line is the ray forward plus the ray backward plus the start square
+                long fullLine = walked | MagicBitboards.walkRays(from, 0L, new int[][]{{-direction[0], -direction[1]}})
+                        | (1L << from);
+                long ray = walked;
+                while (ray != 0) {
+                    int to = Long.numberOfTrailingZeros(ray);
+                    ray &= ray - 1;
+                    LINE[from][to] = fullLine;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds every legal move of the given team whose start square is inside {@code fromSquares}.
+     *
+     * @param castlingRights  the castling rights bits from ChessGame
+     * @param enPassantSquare the square a pawn can capture onto en passant, or -1
+     */
+    public static void generateLegalMoves(ChessBoard board, ChessGame.TeamColor team, int castlingRights,
+                                          int enPassantSquare, long fromSquares, Collection<ChessMove> moves) {
+        MoveList packedMoves = new MoveList();
+        generateLegalMoves(board, team, castlingRights, enPassantSquare, fromSquares, packedMoves);
+        packedMoves.addAllTo(moves);
+    }
+
+    /**
+     * Same as above but appends packed moves (see {@link PackedMove}) to a reusable list,
+     * which is what the hot loops (perft, search) use so nothing is allocated per move.
+     */
+    public static void generateLegalMoves(ChessBoard board, ChessGame.TeamColor team, int castlingRights,
+                                          int enPassantSquare, long fromSquares, MoveList moves) {
+        ChessGame.TeamColor enemy = (team == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long ownPieces = board.getTeamOccupancy(team);
+        long enemyPieces = board.getTeamOccupancy(enemy);
+        long occupied = board.getOccupancy();
+        int kingSquare = board.findKingSquare(team);
+
+        // Without a king nothing can be pinned or checked (only happens on hand-built test boards)
+        long checkers = 0L;
+        long pinned = 0L;
+        if (kingSquare >= 0) {
+            checkers = attackersOf(board, kingSquare, enemy, occupied);
+            pinned = findPinnedPieces(board, kingSquare, team, enemy);
+
+            if ((fromSquares & (1L << kingSquare)) != 0) {
+                addKingMoves(board, kingSquare, enemy, ownPieces, occupied, moves);
+                if (checkers == 0) {
+                    addCastlingMoves(board, kingSquare, team, enemy, castlingRights, occupied, moves);
+                }
+            }
+            // Double check: only the king itself can do anything about it
+            if (Long.bitCount(checkers) > 1) {
+                return;
+            }
+        }
+
+        // In check, a move must capture the checker or step in between it and the king
+        long evasionMask = ALL_SQUARES;
+        if (checkers != 0) {
+            int checkerSquare = Long.numberOfTrailingZeros(checkers);
+            evasionMask = checkers | BETWEEN[kingSquare][checkerSquare];
+        }
+
+        long movers = ownPieces & fromSquares;
+        if (kingSquare >= 0) {
+            movers &= ~(1L << kingSquare);
+        }
+        while (movers != 0) {
+            int from = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+            ChessPiece piece = board.getPiece(from);
+
+            long allowed = evasionMask;
+            if ((pinned & (1L << from)) != 0) {
+                // A pinned piece can only slide along the line between its king and the pinning piece
+                allowed &= LINE[kingSquare][from];
+            }
+
+            if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                addPawnMoves(board, from, team, enemyPieces, occupied, allowed, kingSquare, enPassantSquare, moves);
+            } else {
+                long targets = pieceAttacks(piece.getPieceType(), from, occupied) & ~ownPieces & allowed;
+                moves.addMovesToTargets(from, targets);
+            }
+        }
+    }
+
+    /**
+     * @return mask of the pieces of {@code attackerTeam} that attack the given square
+     */
+    public static long attackersOf(ChessBoard board, int square, ChessGame.TeamColor attackerTeam, long occupied) {
+        ChessGame.TeamColor defenderTeam = (attackerTeam == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = board.getPieceBitboard(attackerTeam, ChessPiece.PieceType.QUEEN);
+        long rookLike = board.getPieceBitboard(attackerTeam, ChessPiece.PieceType.ROOK) | queens;
+        long bishopLike = board.getPieceBitboard(attackerTeam, ChessPiece.PieceType.BISHOP) | queens;
+
+        // Look outward from the square itself: whatever it could reach as a piece can reach it back
+        return (knightAttacks(square) & board.getPieceBitboard(attackerTeam, ChessPiece.PieceType.KNIGHT))
+                | (kingAttacks(square) & board.getPieceBitboard(attackerTeam, ChessPiece.PieceType.KING))
+                | (pawnAttacks(square, defenderTeam) & board.getPieceBitboard(attackerTeam, ChessPiece.PieceType.PAWN))
+                | (MagicBitboards.rookAttacks(square, occupied) & rookLike)
+                | (MagicBitboards.bishopAttacks(square, occupied) & bishopLike);
+    }
+
+    private static long findPinnedPieces(ChessBoard board, int kingSquare,
+                                         ChessGame.TeamColor team, ChessGame.TeamColor enemy) {
+        long occupied = board.getOccupancy();
+        long ownPieces = board.getTeamOccupancy(team);
+        long enemyPieces = board.getTeamOccupancy(enemy);
+        long queens = board.getPieceBitboard(enemy, ChessPiece.PieceType.QUEEN);
+
+        // Enemy sliders that would hit the king if only enemy pieces were on the board
+        long snipers = (MagicBitboards.rookAttacks(kingSquare, enemyPieces)
+                & (board.getPieceBitboard(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (MagicBitboards.bishopAttacks(kingSquare, enemyPieces)
+                & (board.getPieceBitboard(enemy, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniperSquare = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = BETWEEN[kingSquare][sniperSquare] & occupied;
+            // Exactly one of our own pieces in the way means that piece is pinned
+            if (Long.bitCount(blockers) == 1 && (blockers & ownPieces) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    private static void addKingMoves(ChessBoard board, int kingSquare, ChessGame.TeamColor enemy,
+                                     long ownPieces, long occupied, MoveList moves) {
+        // Lift the king off the board so it cannot hide behind itself on a checking ray
+        long occupiedWithoutKing = occupied & ~(1L << kingSquare);
+        long targets = kingAttacks(kingSquare) & ~ownPieces;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (attackersOf(board, to, enemy, occupiedWithoutKing) == 0) {
+                moves.add(PackedMove.encode(kingSquare, to));
+            }
+        }
+    }
+
+    private static void addCastlingMoves(ChessBoard board, int kingSquare, ChessGame.TeamColor team,
+                                         ChessGame.TeamColor enemy, int castlingRights, long occupied,
+                                         MoveList moves) {
+        boolean white = team == ChessGame.TeamColor.WHITE;
+        int homeKingSquare = white ? 4 : 60;
+        if (kingSquare != homeKingSquare) {
+            return;
+        }
+        long rooks = board.getPieceBitboard(team, ChessPiece.PieceType.ROOK);
+        int kingsideRight = white ? ChessGame.CASTLE_WHITE_KINGSIDE : ChessGame.CASTLE_BLACK_KINGSIDE;
+        int queensideRight = white ? ChessGame.CASTLE_WHITE_QUEENSIDE : ChessGame.CASTLE_BLACK_QUEENSIDE;
+
+        // Kingside: f and g files empty and not attacked
+        if ((castlingRights & kingsideRight) != 0 && (rooks & (1L << (kingSquare + 3))) != 0
+                && (occupied & BETWEEN[kingSquare][kingSquare + 3]) == 0
+                && attackersOf(board, kingSquare + 1, enemy, occupied) == 0
+                && attackersOf(board, kingSquare + 2, enemy, occupied) == 0) {
+            moves.add(PackedMove.encode(kingSquare, kingSquare + 2, null, PackedMove.FLAG_CASTLE));
+        }
+
+        // Queenside: b, c and d files empty, king only crosses d and c so only those must be safe
+        if ((castlingRights & queensideRight) != 0 && (rooks & (1L << (kingSquare - 4))) != 0
+                && (occupied & BETWEEN[kingSquare][kingSquare - 4]) == 0
+                && attackersOf(board, kingSquare - 1, enemy, occupied) == 0
+                && attackersOf(board, kingSquare - 2, enemy, occupied) == 0) {
+            moves.add(PackedMove.encode(kingSquare, kingSquare - 2, null, PackedMove.FLAG_CASTLE));
+        }
+    }
+
+    private static void addPawnMoves(ChessBoard board, int from, ChessGame.TeamColor team, long enemyPieces,
+                                     long occupied, long allowed, int kingSquare, int enPassantSquare,
+                                     MoveList moves) {
+        boolean white = team == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int startingRow = white ? 1 : 6;
+        int oneStep = from + forward;
+
+        long targets = 0L;
+        if (oneStep >= 0 && oneStep < 64 && (occupied & (1L << oneStep)) == 0) {
+            targets |= 1L << oneStep;
+            int twoStep = oneStep + forward;
+            if (from / 8 == startingRow && (occupied & (1L << twoStep)) == 0) {
+                targets |= 1L << twoStep;
+            }
+        }
+        targets |= pawnAttacks(from, team) & enemyPieces;
+        targets &= allowed;
+
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (to / 8 == 0 || to / 8 == 7) {
+                // If promoting, become any of the following pieces
+                for (ChessPiece.PieceType promotion : PROMOTION_CHOICES) {
+                    moves.add(PackedMove.encode(from, to, promotion, 0));
+                }
+            } else if (Math.abs(to - from) == 16) {
+                moves.add(PackedMove.encode(from, to, null, PackedMove.FLAG_DOUBLE_PAWN_STEP));
+            } else {
+                moves.add(PackedMove.encode(from, to));
+            }
+        }
+
+        if (enPassantSquare >= 0 && (pawnAttacks(from, team) & (1L << enPassantSquare)) != 0
+                && isLegalEnPassant(board, from, enPassantSquare, team, kingSquare)) {
+            moves.add(PackedMove.encode(from, enPassantSquare, null, PackedMove.FLAG_EN_PASSANT));
+        }
+    }
+
+    private static boolean isLegalEnPassant(ChessBoard board, int from, int enPassantSquare,
+                                            ChessGame.TeamColor team, int kingSquare) {
+        ChessGame.TeamColor enemy = (team == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        // The pawn being captured sits beside the capturing pawn, not on the landing square
+        int victimSquare = enPassantSquare - (team == ChessGame.TeamColor.WHITE ? 8 : -8);
+        long victimBit = 1L << victimSquare;
+        if ((board.getPieceBitboard(enemy, ChessPiece.PieceType.PAWN) & victimBit) == 0
+                || (board.getOccupancy() & (1L << enPassantSquare)) != 0) {
+            return false;
+        }
+        if (kingSquare < 0) {
+            return true;
+        }
+        // Two pawns leave the same rank at once, which pins and evasions cannot express, so test directly
+        long occupiedAfter = (board.getOccupancy() & ~(1L << from) & ~victimBit) | (1L << enPassantSquare);
+        return (attackersOf(board, kingSquare, enemy, occupiedAfter) & ~victimBit) == 0;
+    }
+
+    // --- Attack sets computed from the square outward ---
+
+    static long pieceAttacks(ChessPiece.PieceType type, int square, long occupied) {
+        return switch (type) {
+            case KNIGHT -> knightAttacks(square);
+            case KING -> kingAttacks(square);
+            case ROOK -> MagicBitboards.rookAttacks(square, occupied);
+            case BISHOP -> MagicBitboards.bishopAttacks(square, occupied);
+            case QUEEN -> MagicBitboards.queenAttacks(square, occupied);
+            default -> throw new RuntimeException("Error: Pawn attacks depend on the team!");
+        };
+    }
+
+    static long knightAttacks(int square) {
+        return AttackTables.knightAttacks(square);
+    }
+
+    static long kingAttacks(int square) {
+        return AttackTables.kingAttacks(square);
+    }
+
+    static long pawnAttacks(int square, ChessGame.TeamColor team) {
+        return AttackTables.pawnAttacks(square, team);
+    }
+}
@@ -0,0 +1,155 @@
+package chess;
+
+/**
+ * Rook and bishop attacks by "magic bitboard" lookup. For every square only the pieces on the
+ * squares that can block the slider matter (the relevant mask). Multiplying those pieces by a
+ * magic number and shifting packs them into a small index, and that index points at the attack set
+ * that was computed once when the class loaded. So a sliding attack is an AND, a multiply, a shift
+ * and an array read, no matter how many squares the ray has.
+ *
+ * <p>The magic numbers are searched at class load with a fixed seed, so they are the same every
+ * run. The search takes a few milliseconds.
+ */
+public class MagicBitboards {
+
+    static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] ROOK_MASKS = new long[ChessBoard.SQUARE_COUNT];
+    private static final long[] ROOK_MAGICS = new long[ChessBoard.SQUARE_COUNT];
+    private static final int[] ROOK_SHIFTS = new int[ChessBoard.SQUARE_COUNT];
+    private static final long[][] ROOK_ATTACKS = new long[ChessBoard.SQUARE_COUNT][];
+
+    private static final long[] BISHOP_MASKS = new long[ChessBoard.SQUARE_COUNT];
+    private static final long[] BISHOP_MAGICS = new long[ChessBoard.SQUARE_COUNT];
+    private static final int[] BISHOP_SHIFTS = new int[ChessBoard.SQUARE_COUNT];
+    private static final long[][] BISHOP_ATTACKS = new long[ChessBoard.SQUARE_COUNT][];
+
+    private static long randomState = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int square = 0; square < ChessBoard.SQUARE_COUNT; square++) {
+            fillSquare(square, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_ATTACKS);
+            fillSquare(square, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_ATTACKS);
+        }
+    }
+
+    /**
+     * @return the squares a rook on the square attacks, stopping at (and including) the first piece each way
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_ATTACKS[square][index];
+    }
+
+    /**
+     * @return the squares a bishop on the square attacks, stopping at (and including) the first piece each way
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_ATTACKS[square][index];
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * The slow way: walk every ray square by square. Only used to build the tables (and other
+     * tables that need a ray once), never while playing.
+     */
+    static long walkRays(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int col = square % 8 + direction[1];
+            // Walk until the edge; the first occupied square is included (it can be captured) then stop
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                long squareBit = 1L << (row * 8 + col);
+                attacks |= squareBit;
+                if ((occupied & squareBit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static void fillSquare(int square, int[][] directions, long[] masks, long[] magics,
+                                   int[] shifts, long[][] attacks) {
+        long mask = relevantMask(square, directions);
+        int bits = Long.bitCount(mask);
+        int subsetCount = 1 << bits;
+
+        // Every way the blockers can be arranged, with the attack set that goes with it
+        long[] occupancies = new long[subsetCount];
+        long[] expected = new long[subsetCount];
+        long subset = 0L;
+        for (int i = 0; i < subsetCount; i++) {
+            occupancies[i] = subset;
+            expected[i] = walkRays(square, subset, directions);
+            // Carry-rippler trick: steps through all subsets of the mask
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[subsetCount];
+        int[] usedBy = new int[subsetCount];
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            long magic = nextRandom() & nextRandom() & nextRandom();
+            // Weed out candidates that cannot spread the high bits well enough
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            if (tryMagic(magic, bits, occupancies, expected, table, usedBy, attempt)) {
+                masks[square] = mask;
+                magics[square] = magic;
+                shifts[square] = 64 - bits;
+                attacks[square] = table;
+                return;
+            }
+        }
+    }
+
+    private static boolean tryMagic(long magic, int bits, long[] occupancies, long[] expected,
+                                    long[] table, int[] usedBy, int attempt) {
+        for (int i = 0; i < occupancies.length; i++) {
+            int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+            // usedBy stamps the slot with the attempt number so the arrays never need clearing
+            if (usedBy[index] != attempt) {
+                usedBy[index] = attempt;
+                table[index] = expected[i];
+            } else if (table[index] != expected[i]) {
+                return false; // Two arrangements collide with different answers
+            }
+        }
+        return true;
+    }
+
+    // The squares whose occupancy changes the attack set: the rays without their last (edge) square
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int col = square % 8 + direction[1];
+            while (row + direction[0] >= 0 && row + direction[0] < 8
+                    && col + direction[1] >= 0 && col + direction[1] < 8) {
+                mask |= 1L << (row * 8 + col);
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    // xorshift64 generator with a fixed seed so the search finds the same magics every time
+    private static long nextRandom() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return randomState;
+    }
+}
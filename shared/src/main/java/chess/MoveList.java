@@ -0,0 +1,101 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A growable list of packed moves (see {@link PackedMove}) backed by an int array.
+ * Meant to be created once and reused: {@link #clear()} keeps the array, so filling it again does
+ * not allocate anything.
+ */
+public class MoveList {
+
+    // Plenty for any legal chess position (the known maximum is 218)
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] packedMoves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int initialCapacity) {
+        packedMoves = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(int packedMove) {
+        if (size == packedMoves.length) {
+            packedMoves = Arrays.copyOf(packedMoves, size * 2);
+        }
+        packedMoves[size++] = packedMove;
+    }
+
+    /**
+     * Adds a plain move from the square to every square set in the target mask.
+     */
+    public void addMovesToTargets(int fromSquare, long targets) {
+        while (targets != 0) {
+            int toSquare = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            add(PackedMove.encode(fromSquare, toSquare));
+        }
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Error: Move index " + index + " outside list of size " + size);
+        }
+        return packedMoves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Exchanges two moves, so a search can sort the list in place while it picks moves.
+     */
+    public void swap(int first, int second) {
+        int kept = packedMoves[first];
+        packedMoves[first] = packedMoves[second];
+        packedMoves[second] = kept;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return true if a move with the same squares and promotion is in the list (flags are ignored)
+     */
+    public boolean containsMove(int packedMove) {
+        for (int i = 0; i < size; i++) {
+            if ((packedMoves[i] & 0xFFFF) == (packedMove & 0xFFFF)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts every move to a ChessMove and appends it to the collection, for the public API.
+     */
+    public void addAllTo(Collection<ChessMove> moves) {
+        for (int i = 0; i < size; i++) {
+            moves.add(PackedMove.toChessMove(packedMoves[i]));
+        }
+    }
+
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> moves = new ArrayList<>(size);
+        addAllTo(moves);
+        return moves;
+    }
+}
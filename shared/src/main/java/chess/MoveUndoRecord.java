@@ -0,0 +1,47 @@
+package chess;
+
+/**
+ * Everything needed to take back a move made with {@link ChessBoard#makeMove(ChessMove)}.
+ * The board fills in the piece information and ChessGame adds the turn, castling, en passant and clock state,
+ * so a move can be tried and reverted in place without copying the whole board.
+ */
+public class MoveUndoRecord {
+    // The move as played, packed (see PackedMove)
+    final int packedMove;
+    final ChessPiece movedPiece;
+    // Piece removed by the move (null for quiet moves) and where it was standing.
+    // For en passant the square is behind the landing spot, not the landing spot itself.
+    final ChessPiece capturedPiece;
+    final int capturedSquare;
+    // Rook hop for castling moves, -1 when the move was not a castle
+    final int rookFromSquare;
+    final int rookToSquare;
+
+    // Game level state, filled in by ChessGame when it commits the move
+    int previousCastlingRights;
+    int previousEnPassantSquare;
+    ChessGame.TeamColor previousTeamTurn;
+    int previousHalfmoveClock;
+
+    MoveUndoRecord(int packedMove, ChessPiece movedPiece, ChessPiece capturedPiece, int capturedSquare,
+                   int rookFromSquare, int rookToSquare) {
+        this.packedMove = packedMove;
+        this.movedPiece = movedPiece;
+        this.capturedPiece = capturedPiece;
+        this.capturedSquare = capturedSquare;
+        this.rookFromSquare = rookFromSquare;
+        this.rookToSquare = rookToSquare;
+    }
+
+    public ChessMove getMove() {
+        return PackedMove.toChessMove(packedMove);
+    }
+
+    public int getPackedMove() {
+        return packedMove;
+    }
+
+    public ChessPiece getCapturedPiece() {
+        return capturedPiece;
+    }
+}
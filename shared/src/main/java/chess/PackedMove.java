@@ -0,0 +1,105 @@
+package chess;
+
+/**
+ * A move packed into one int, so move generation can fill plain int arrays instead of creating a
+ * ChessMove (and two ChessPositions) for every move.
+ *
+ * <pre>
+ * bits  0-5   start square (0..63, same numbering as ChessBoard)
+ * bits  6-11  end square
+ * bits 12-15  promotion piece: 0 for none, otherwise PieceType ordinal + 1
+ * bits 16-18  special move flags (en passant, castle, pawn double step)
+ * </pre>
+ *
+ * The flags let the board play the move without guessing what kind of move it is.
+ * Two packed moves describe the same ChessMove when their lower 16 bits are equal.
+ */
+public class PackedMove {
+
+    public static final int NO_MOVE = 0;
+
+    public static final int FLAG_EN_PASSANT = 1 << 16;
+    public static final int FLAG_CASTLE = 1 << 17;
+    public static final int FLAG_DOUBLE_PAWN_STEP = 1 << 18;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    public static int encode(int fromSquare, int toSquare) {
+        return fromSquare | (toSquare << 6);
+    }
+
+    public static int encode(int fromSquare, int toSquare, ChessPiece.PieceType promotionPiece, int flags) {
+        int promotionCode = promotionPiece == null ? 0 : promotionPiece.ordinal() + 1;
+        return fromSquare | (toSquare << 6) | (promotionCode << PROMOTION_SHIFT) | flags;
+    }
+
+    public static int fromSquare(int packedMove) {
+        return packedMove & SQUARE_MASK;
+    }
+
+    public static int toSquare(int packedMove) {
+        return (packedMove >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotionPiece(int packedMove) {
+        int promotionCode = (packedMove >>> PROMOTION_SHIFT) & 0xF;
+        return promotionCode == 0 ? null : PIECE_TYPES[promotionCode - 1];
+    }
+
+    public static boolean isEnPassant(int packedMove) {
+        return (packedMove & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int packedMove) {
+        return (packedMove & FLAG_CASTLE) != 0;
+    }
+
+    public static boolean isDoublePawnStep(int packedMove) {
+        return (packedMove & FLAG_DOUBLE_PAWN_STEP) != 0;
+    }
+
+    /**
+     * Converts to the public ChessMove type. Moves without promotion come from the shared table in
+     * AttackTables, so this does not allocate for them.
+     */
+    public static ChessMove toChessMove(int packedMove) {
+        int fromSquare = fromSquare(packedMove);
+        int toSquare = toSquare(packedMove);
+        ChessPiece.PieceType promotion = promotionPiece(packedMove);
+        if (promotion == null) {
+            return AttackTables.plainMove(fromSquare, toSquare);
+        }
+        return new ChessMove(ChessBoard.squareToPosition(fromSquare), ChessBoard.squareToPosition(toSquare), promotion);
+    }
+
+    /**
+     * Packs a ChessMove that is about to be played on the given board. A ChessMove does not say
+     * whether it is a castle or en passant, so that is worked out from the piece that moves.
+     */
+    public static int fromChessMove(ChessMove move, ChessBoard board) {
+        int fromSquare = ChessBoard.squareIndex(move.getStartPosition());
+        int toSquare = ChessBoard.squareIndex(move.getEndPosition());
+        ChessPiece movingPiece = board.getPiece(fromSquare);
+        int columnShift = (toSquare % 8) - (fromSquare % 8);
+        int flags = 0;
+
+        if (movingPiece != null && movingPiece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            // A pawn moving diagonally to an empty square is En Passant
+            if (columnShift != 0 && board.getPiece(toSquare) == null) {
+                flags = FLAG_EN_PASSANT;
+            } else if (Math.abs(toSquare - fromSquare) == 16) {
+                flags = FLAG_DOUBLE_PAWN_STEP;
+            }
+        } else if (movingPiece != null && movingPiece.getPieceType() == ChessPiece.PieceType.KING
+                && Math.abs(columnShift) == 2) {
+            // A king moving 2 squares is castling
+            flags = FLAG_CASTLE;
+        }
+        return encode(fromSquare, toSquare, move.getPromotionPiece(), flags);
+    }
+}
@@ -0,0 +1,129 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft spread over a {@link ForkJoinPool}: the moves of the first ply (and of the second one too
+ * when asked) become separate tasks, each on its own copy of the game, and below that every task
+ * walks its subtree with make/unmake like {@link PerftRunner#perft(ChessGame, int)}.
+ *
+ * <p>An optional {@link PerftHashTable} remembers the count of every subtree, so positions reached
+ * through different move orders (very common a few plies deep) are counted only once.
+ */
+public class ParallelPerft implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final int splitPlies;
+    // May be null, then every subtree is walked
+    private final PerftHashTable hashTable;
+
+    public ParallelPerft(int parallelism) {
+        this(parallelism, 1, 0);
+    }
+
+    /**
+     * @param splitPlies     how many plies from the root are split into tasks (1 or 2 is plenty)
+     * @param hashMegabytes  size of the shared result table, or 0 to use none
+     */
+    public ParallelPerft(int parallelism, int splitPlies, int hashMegabytes) {
+        if (parallelism < 1 || splitPlies < 1) {
+            throw new IllegalArgumentException("Error: Perft needs at least one thread and one split ply");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.splitPlies = splitPlies;
+        this.hashTable = hashMegabytes > 0 ? new PerftHashTable(hashMegabytes) : null;
+    }
+
+    /**
+     * Same count as {@link PerftRunner#perft(ChessGame, int)}. The game is not touched,
+     * every task works on its own copy.
+     */
+    public long perft(ChessGame game, int depth) {
+        return pool.invoke(new PerftTask(game.makeDeepCopy(), depth, splitPlies));
+    }
+
+    public PerftHashTable getHashTable() {
+        return hashTable;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+        private final int splitPliesLeft;
+
+        PerftTask(ChessGame game, int depth, int splitPliesLeft) {
+            this.game = game;
+            this.depth = depth;
+            this.splitPliesLeft = splitPliesLeft;
+        }
+
+        @Override
+        protected Long compute() {
+            // Splitting a ply that is counted in bulk anyway would only add task overhead
+            if (splitPliesLeft == 0 || depth <= 2) {
+                return walk(game, depth);
+            }
+            MoveList moves = new MoveList();
+            game.collectValidMoves(moves);
+            List<PerftTask> children = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessGame child = game.makeDeepCopy();
+                child.makeUncheckedMove(moves.get(i));
+                children.add(new PerftTask(child, depth - 1, splitPliesLeft - 1));
+            }
+            long nodes = 0;
+            for (PerftTask child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    private long walk(ChessGame game, int depth) {
+        MoveList[] movesPerPly = new MoveList[Math.max(depth, 1)];
+        for (int ply = 0; ply < movesPerPly.length; ply++) {
+            movesPerPly[ply] = new MoveList();
+        }
+        return walk(game, depth, movesPerPly);
+    }
+
+    private long walk(ChessGame game, int depth, MoveList[] movesPerPly) {
+        if (depth == 0) {
+            return 1;
+        }
+        long key = 0;
+        // Depth 1 is a single move generation, cheaper than a table lookup
+        if (hashTable != null && depth > 1) {
+            key = game.getZobristKey();
+            long stored = hashTable.probe(key, depth);
+            if (stored >= 0) {
+                return stored;
+            }
+        }
+
+        MoveList legalMoves = movesPerPly[depth - 1];
+        legalMoves.clear();
+        game.collectValidMoves(legalMoves);
+        if (depth == 1) {
+            return legalMoves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < legalMoves.size(); i++) {
+            MoveUndoRecord record = game.makeUncheckedMove(legalMoves.get(i));
+            nodes += walk(game, depth - 1, movesPerPly);
+            game.unmakeMove(record);
+        }
+        if (hashTable != null) {
+            hashTable.store(key, depth, nodes);
+        }
+        return nodes;
+    }
+}
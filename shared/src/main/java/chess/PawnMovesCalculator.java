@@ -1,82 +1,70 @@
 package chess;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class PawnMovesCalculator implements PieceMovesCalculator {
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
-        Collection<ChessMove> pawnMoves = new ArrayList<>();
-
+    public void calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece, MoveList pawnMoves) {
         int currentRow = myPosition.getRow();
-        int currentCol = myPosition.getColumn();
+        int pawnSquare = ChessBoard.squareIndex(myPosition);
 
         // Determining direction based on team color
         int walkDirection;
         int startingRow;
         int promotionZoneRow;
+        ChessGame.TeamColor enemyTeam;
 
         if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
             walkDirection = 1; // White goes up
             startingRow = 2;
             promotionZoneRow = 8;
+            enemyTeam = ChessGame.TeamColor.BLACK;
         } else {
             walkDirection = -1; // Black goes down
             startingRow = 7;
             promotionZoneRow = 1;
+            enemyTeam = ChessGame.TeamColor.WHITE;
         }
 
-        // Logic 1: Walking Forward 1 Step
+        // Logic 1: Walking Forward 1 Step (one row is 8 squares)
         int nextRow = currentRow + walkDirection;
+        boolean isPromoting = (nextRow == promotionZoneRow);
         if (nextRow >= 1 && nextRow <= 8) {
-            ChessPosition oneStepPos = new ChessPosition(nextRow, currentCol);
+            int oneStepSquare = pawnSquare + walkDirection * 8;
             // Only walk forward if nobody is blocking
-            if (board.getPiece(oneStepPos) == null) {
-                boolean isPromoting = (nextRow == promotionZoneRow);
-                registerPawnMove(myPosition, oneStepPos, isPromoting, pawnMoves);
+            if (board.getPiece(oneStepSquare) == null) {
+                registerPawnMove(pawnSquare, oneStepSquare, isPromoting, pawnMoves);
 
                 // Logic 2: Walking Forward 2 Steps (only from start)
                 if (currentRow == startingRow) {
-                    int doubleStepRow = currentRow + (walkDirection * 2);
-                    ChessPosition doubleStepPos = new ChessPosition(doubleStepRow, currentCol);
+                    int doubleStepSquare = oneStepSquare + walkDirection * 8;
                     // Both steps must be clear
-                    if (board.getPiece(doubleStepPos) == null) {
-                        pawnMoves.add(new ChessMove(myPosition, doubleStepPos, null));
+                    if (board.getPiece(doubleStepSquare) == null) {
+                        pawnMoves.add(PackedMove.encode(pawnSquare, doubleStepSquare, null,
+                                PackedMove.FLAG_DOUBLE_PAWN_STEP));
                     }
                 }
             }
         }
 
-        // Logic 3: Capturing Enemies (Diagonals)
-        int[] captureOffsets = {-1, 1}; // Left and Right columns
-        for (int offset : captureOffsets) {
-            int attackCol = currentCol + offset;
-            if (attackCol >= 1 && attackCol <= 8 && nextRow >= 1 && nextRow <= 8) {
-                ChessPosition attackPos = new ChessPosition(nextRow, attackCol);
-                ChessPiece enemy = board.getPiece(attackPos);
-
-                // Verify if there is a target and if it is an enemy
-                if (enemy != null && enemy.getTeamColor() != piece.getTeamColor()) {
-                    boolean isPromoting = (nextRow == promotionZoneRow);
-                    registerPawnMove(myPosition, attackPos, isPromoting, pawnMoves);
-                }
-            }
+        // Logic 3: Capturing Enemies (Diagonals), looked up from the precomputed capture table
+        long targets = AttackTables.pawnAttacks(pawnSquare, piece.getTeamColor()) & board.getTeamOccupancy(enemyTeam);
+        while (targets != 0) {
+            int attackSquare = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            registerPawnMove(pawnSquare, attackSquare, isPromoting, pawnMoves);
         }
-
-        return pawnMoves;
     }
 
     // Helper method to handle the promotion verbosity
-    private void registerPawnMove(ChessPosition start, ChessPosition end,
-                                  boolean promote, Collection<ChessMove> moves) {
+    private void registerPawnMove(int startSquare, int endSquare,
+                                  boolean promote, MoveList moves) {
         if (promote) {
             // If promoting, become any of the following pieces
-            moves.add(new ChessMove(start, end, ChessPiece.PieceType.QUEEN));
-            moves.add(new ChessMove(start, end, ChessPiece.PieceType.BISHOP));
-            moves.add(new ChessMove(start, end, ChessPiece.PieceType.ROOK));
-            moves.add(new ChessMove(start, end, ChessPiece.PieceType.KNIGHT));
+            moves.add(PackedMove.encode(startSquare, endSquare, ChessPiece.PieceType.QUEEN, 0));
+            moves.add(PackedMove.encode(startSquare, endSquare, ChessPiece.PieceType.BISHOP, 0));
+            moves.add(PackedMove.encode(startSquare, endSquare, ChessPiece.PieceType.ROOK, 0));
+            moves.add(PackedMove.encode(startSquare, endSquare, ChessPiece.PieceType.KNIGHT, 0));
         } else {
-            moves.add(new ChessMove(start, end, null));
+            moves.add(PackedMove.encode(startSquare, endSquare));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package chess;
+
+/**
+ * Remembers perft subtree counts by Zobrist key and depth. Like the search's transposition table it
+ * is one {@code long[]} with the key XORed into each entry, so threads can share it without locks:
+ * an entry torn by two writers no longer matches any key and reads as a miss.
+ *
+ * <pre>
+ * data bits  0-55  node count
+ *            56-63 depth
+ * </pre>
+ */
+public class PerftHashTable {
+
+    private static final long COUNT_MASK = (1L << 56) - 1;
+    private static final int DEPTH_SHIFT = 56;
+
+    private final long[] slots;
+    private final long entryMask;
+
+    public PerftHashTable(int sizeInMegabytes) {
+        if (sizeInMegabytes < 1) {
+            throw new IllegalArgumentException("Error: Perft hash table needs at least 1 MB");
+        }
+        long entries = Long.highestOneBit((long) sizeInMegabytes * 1024 * 1024 / (2 * Long.BYTES));
+        entries = Math.min(entries, 1L << 29);
+        slots = new long[(int) (entries * 2)];
+        entryMask = entries - 1;
+    }
+
+    /**
+     * @return the stored count of the position at this depth, or -1 if it is not in the table
+     */
+    public long probe(long key, int depth) {
+        int slot = slotIndex(key, depth);
+        long data = slots[slot + 1];
+        if ((slots[slot] ^ data) == key && data != 0 && (int) (data >>> DEPTH_SHIFT) == depth) {
+            return data & COUNT_MASK;
+        }
+        return -1;
+    }
+
+    public void store(long key, int depth, long nodes) {
+        if (nodes > COUNT_MASK) {
+            return; // Too big to pack, and such a subtree is never reached twice anyway
+        }
+        long data = ((long) depth << DEPTH_SHIFT) | nodes;
+        int slot = slotIndex(key, depth);
+        slots[slot] = key ^ data;
+        slots[slot + 1] = data;
+    }
+
+    // The depth is mixed in, so counts of one position at different depths don't keep evicting each other
+    private int slotIndex(long key, int depth) {
+        return (int) ((key ^ (depth * 0x9E3779B97F4A7C15L)) & entryMask) * 2;
+    }
+}
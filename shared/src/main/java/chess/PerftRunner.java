@@ -0,0 +1,167 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft ("performance test") walks the whole legal move tree to a fixed depth and counts the leaves.
+ * The counts for the standard positions below are well known, so any mismatch means the move
+ * generator is broken, and the time it takes is the headline speed number for move generation.
+ *
+ * <p>Run it with {@code java -cp shared/target/shared.jar chess.PerftRunner [depth] [threads]}.
+ * With more than one thread the counts come from {@link ParallelPerft} (with a hash table) and the
+ * per-move divide is left out.
+ */
+public class PerftRunner {
+
+    /**
+     * A named test position with the node counts published for it, index 0 being depth 1.
+     */
+    public record PerftPosition(String name, String fen, long[] expectedNodes) {
+    }
+
+    public static final PerftPosition START_POSITION = new PerftPosition("Start position",
+            FenNotation.START_POSITION,
+            new long[]{20, 400, 8902, 197281, 4865609, 119060324});
+
+    public static final PerftPosition KIWIPETE = new PerftPosition("Kiwipete",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            new long[]{48, 2039, 97862, 4085603, 193690690});
+
+    public static final PerftPosition ENDGAME_ROOK_PAWNS = new PerftPosition("Position 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            new long[]{14, 191, 2812, 43238, 674624, 11030083});
+
+    public static final PerftPosition PROMOTION_TANGLE = new PerftPosition("Position 4",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            new long[]{6, 264, 9467, 422333, 15833292});
+
+    public static final PerftPosition MIDDLEGAME_CHECKS = new PerftPosition("Position 5",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            new long[]{44, 1486, 62379, 2103487, 89941194});
+
+    public static final PerftPosition[] STANDARD_POSITIONS = {
+            START_POSITION, KIWIPETE, ENDGAME_ROOK_PAWNS, PROMOTION_TANGLE, MIDDLEGAME_CHECKS
+    };
+
+    /**
+     * Counts the leaf nodes of the legal move tree below the current position of the game.
+     * The game is walked with make/unmake and is left exactly as it was found.
+     */
+    public static long perft(ChessGame game, int depth) {
+        // One reusable packed move list per level, so the walk itself allocates nothing per node
+        MoveList[] movesPerPly = new MoveList[Math.max(depth, 1)];
+        for (int ply = 0; ply < movesPerPly.length; ply++) {
+            movesPerPly[ply] = new MoveList();
+        }
+        return perft(game, depth, movesPerPly);
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] movesPerPly) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList legalMoves = movesPerPly[depth - 1];
+        legalMoves.clear();
+        game.collectValidMoves(legalMoves);
+        // Bulk counting: at the last level the number of legal moves is the number of leaves
+        if (depth == 1) {
+            return legalMoves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < legalMoves.size(); i++) {
+            MoveUndoRecord record = game.makeUncheckedMove(legalMoves.get(i));
+            nodes += perft(game, depth - 1, movesPerPly);
+            game.unmakeMove(record);
+        }
+        return nodes;
+    }
+
+    /**
+     * Same as {@link #perft(ChessGame, int)} but split per root move, which is how a wrong count is
+     * narrowed down to the move that causes it.
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> nodesPerMove = new LinkedHashMap<>();
+        for (ChessMove move : game.allValidMoves()) {
+            MoveUndoRecord record = game.makeUncheckedMove(move);
+            nodesPerMove.put(move, perft(game, depth - 1));
+            game.unmakeMove(record);
+        }
+        return nodesPerMove;
+    }
+
+    public static ChessGame loadPosition(PerftPosition position) {
+        return FenNotation.parse(position.fen());
+    }
+
+    private static String describeMove(ChessMove move) {
+        String text = FenNotation.squareName(ChessBoard.squareIndex(move.getStartPosition()))
+                + FenNotation.squareName(ChessBoard.squareIndex(move.getEndPosition()));
+        if (move.getPromotionPiece() != null) {
+            text += move.getPromotionPiece() == ChessPiece.PieceType.KNIGHT
+                    ? "n" : move.getPromotionPiece().name().substring(0, 1).toLowerCase();
+        }
+        return text;
+    }
+
+    /**
+     * Runs every standard position up to the requested depth (default 4), printing the divide of the
+     * deepest level, the node counts, whether they match and the nodes per second.
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        if (threads > 1) {
+            System.exit(runParallel(maxDepth, threads) ? 0 : 1);
+        }
+        boolean allMatched = true;
+
+        for (PerftPosition position : STANDARD_POSITIONS) {
+            ChessGame game = loadPosition(position);
+            int depth = Math.min(maxDepth, position.expectedNodes().length);
+            System.out.println("== " + position.name() + " (" + position.fen() + "), depth " + depth);
+
+            long startNanos = System.nanoTime();
+            Map<ChessMove, Long> divide = divide(game, depth);
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            long total = 0;
+            for (Map.Entry<ChessMove, Long> entry : divide.entrySet()) {
+                System.out.println("  " + describeMove(entry.getKey()) + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            long expected = position.expectedNodes()[depth - 1];
+            boolean matched = total == expected;
+            allMatched &= matched;
+            long nodesPerSecond = elapsedNanos == 0 ? 0 : total * 1_000_000_000L / elapsedNanos;
+            System.out.printf("  nodes %d (expected %d) %s, %.3f s, %,d nodes/s%n",
+                    total, expected, matched ? "OK" : "MISMATCH", elapsedNanos / 1e9, nodesPerSecond);
+        }
+
+        if (!allMatched) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean runParallel(int maxDepth, int threads) {
+        boolean allMatched = true;
+        try (ParallelPerft parallelPerft = new ParallelPerft(threads, 2, 256)) {
+            for (PerftPosition position : STANDARD_POSITIONS) {
+                int depth = Math.min(maxDepth, position.expectedNodes().length);
+                long startNanos = System.nanoTime();
+                long total = parallelPerft.perft(loadPosition(position), depth);
+                long elapsedNanos = System.nanoTime() - startNanos;
+
+                long expected = position.expectedNodes()[depth - 1];
+                boolean matched = total == expected;
+                allMatched &= matched;
+                long nodesPerSecond = elapsedNanos == 0 ? 0 : total * 1_000_000_000L / elapsedNanos;
+                System.out.printf("== %s, depth %d on %d threads: nodes %d (expected %d) %s, %.3f s, %,d nodes/s%n",
+                        position.name(), depth, threads, total, expected, matched ? "OK" : "MISMATCH",
+                        elapsedNanos / 1e9, nodesPerSecond);
+            }
+        }
+        return allMatched;
+    }
+}
@@ -2,6 +2,21 @@ package chess;
 
 import java.util.Collection;
 
+/**
+ * Works out where one kind of piece can move, ignoring whether the move leaves its own king in check.
+ * Implementations keep no state, so ChessPiece shares one instance of each.
+ */
 public interface PieceMovesCalculator {
-    Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece);
+
+    /**
+     * Appends the moves as packed ints (see {@link PackedMove}) to a caller supplied list.
+     * Reusing the same list keeps this allocation free.
+     */
+    void calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece, MoveList moves);
+
+    default Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
+        MoveList moves = new MoveList(32);
+        calculateMoves(board, myPosition, piece, moves);
+        return moves.toChessMoves();
+    }
 }
\ No newline at end of file
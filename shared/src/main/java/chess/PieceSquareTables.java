@@ -0,0 +1,110 @@
+package chess;
+
+/**
+ * Material plus a bonus or penalty for where each piece stands, in centipawns, for the middlegame
+ * and for the endgame. The board keeps the sum of these for every piece up to date as pieces are
+ * placed and removed (like the Zobrist key), so an evaluation can read the totals without looking
+ * at a single square. Blending the two sums by the game phase is left to the evaluator.
+ *
+ * <p>The tables are the well known "simplified evaluation function" ones, written below the way a
+ * board is printed (row 8 first, from White's side).
+ */
+public class PieceSquareTables {
+
+    // Centipawns in PieceType order: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    public static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+    // How much each piece type counts towards the middlegame; all pieces on the board add up to MAX_PHASE
+    public static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+    public static final int MAX_PHASE = 24;
+
+    // [team * 6 + piece type ordinal][square], same indexing as the ChessBoard bitboards
+    static final int[][] MIDGAME = new int[12][64];
+    static final int[][] ENDGAME = new int[12][64];
+
+    private static final int[] KING_MIDGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] PAWN = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    static {
+        // Same order as PieceType; only the king plays differently once the queens are off
+        int[][] midgameTables = {KING_MIDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN};
+        int[][] endgameTables = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN};
+        for (int type = 0; type < 6; type++) {
+            for (int square = 0; square < 64; square++) {
+                // The tables are printed row 8 first: flipping the row bits (square ^ 56) reads them for White,
+                // and Black, looking from the other side, reads them as stored
+                MIDGAME[type][square] = PIECE_VALUES[type] + midgameTables[type][square ^ 56];
+                ENDGAME[type][square] = PIECE_VALUES[type] + endgameTables[type][square ^ 56];
+                MIDGAME[6 + type][square] = PIECE_VALUES[type] + midgameTables[type][square];
+                ENDGAME[6 + type][square] = PIECE_VALUES[type] + endgameTables[type][square];
+            }
+        }
+    }
+}
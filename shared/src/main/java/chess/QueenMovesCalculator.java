@@ -1,15 +1,10 @@
 package chess;
 
-import java.util.Collection;
-
 public class QueenMovesCalculator extends SlidingMovesCalculator {
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
+    public void calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece, MoveList moves) {
         // The Queen combines Bishop and Rook movements
-        int[][] allWays = {
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1},
-                {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
-        return runSlidingLogic(board, myPosition, piece, allWays);
+        long allWays = MagicBitboards.queenAttacks(ChessBoard.squareIndex(myPosition), board.getOccupancy());
+        runSlidingLogic(board, myPosition, piece, allWays, moves);
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Counts how many times each Zobrist key is in a game's position history, so the repetition rule is
+ * one lookup instead of a scan back through the history. It is an open-addressed table of keys and
+ * counts with linear probing: no boxing, and nothing is allocated while moves are made and unmade.
+ *
+ * <p>A key whose count drops back to 0 keeps its slot, so the probe chains of other keys stay
+ * whole. Those slots are only cleared out when the table fills up and is rebuilt.
+ */
+class RepetitionTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private boolean[] used = new boolean[INITIAL_CAPACITY];
+    private int usedSlots;
+
+    RepetitionTable() {
+    }
+
+    RepetitionTable(RepetitionTable other) {
+        keys = other.keys.clone();
+        counts = other.counts.clone();
+        used = other.used.clone();
+        usedSlots = other.usedSlots;
+    }
+
+    /**
+     * @return how many times the key has been added and not removed again
+     */
+    int count(long key) {
+        int slot = findSlot(key);
+        return used[slot] ? counts[slot] : 0;
+    }
+
+    void add(long key) {
+        int slot = findSlot(key);
+        if (!used[slot]) {
+            // Kept at most half full, so probe chains stay short
+            if ((usedSlots + 1) * 2 > keys.length) {
+                rebuild();
+                slot = findSlot(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            usedSlots++;
+        }
+        counts[slot]++;
+    }
+
+    /**
+     * Takes back one {@link #add(long)} of the key.
+     */
+    void remove(long key) {
+        int slot = findSlot(key);
+        if (used[slot] && counts[slot] > 0) {
+            counts[slot]--;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        Arrays.fill(counts, 0);
+        usedSlots = 0;
+    }
+
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        // The low bits of a Zobrist key are already random, no extra mixing needed
+        int slot = (int) key & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Drops the keys counted down to 0, and doubles the size if the rest still fill half of it
+    private void rebuild() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        boolean[] oldUsed = used;
+        int liveKeys = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i] && oldCounts[i] > 0) {
+                liveKeys++;
+            }
+        }
+        int capacity = oldKeys.length;
+        while ((liveKeys + 1) * 2 > capacity / 2) {
+            capacity *= 2;
+        }
+        keys = new long[capacity];
+        counts = new int[capacity];
+        used = new boolean[capacity];
+        usedSlots = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i] && oldCounts[i] > 0) {
+                int slot = findSlot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                usedSlots++;
+            }
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package chess;
 
-import java.util.Collection;
-
 public class RookMovesCalculator extends SlidingMovesCalculator {
     @Override
-    public Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
+    public void calculateMoves(ChessBoard board, ChessPosition myPosition, ChessPiece piece, MoveList moves) {
         // Rooks move in straight lines (up, down, left, right)
-        int[][] straightWays = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
-        return runSlidingLogic(board, myPosition, piece, straightWays);
+        long straightWays = MagicBitboards.rookAttacks(ChessBoard.squareIndex(myPosition), board.getOccupancy());
+        runSlidingLogic(board, myPosition, piece, straightWays, moves);
     }
 }
\ No newline at end of file
@@ -1,52 +1,17 @@
 package chess;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public abstract class SlidingMovesCalculator implements PieceMovesCalculator {
 
     /*
      * This method is a helper for pieces that slide (Rook, Bishop, Queen).
      * It prevents code duplication which is bad for security and maintenance.
-     * Iterate through the directions until a wall or another piece hits.
+     * The subclass looks up every square its rays reach (see MagicBitboards); the rays already stop
+     * at the first piece, so only the squares holding a friend have to be dropped here.
      */
-    protected Collection<ChessMove> runSlidingLogic(ChessBoard theBoard, ChessPosition myPosition,
-                                                    ChessPiece myPiece, int[][] searchDirections) {
-
-        Collection<ChessMove> validMoveList = new ArrayList<>();
-
-        for (int[] currentDirection : searchDirections) {
-            int currentRowCheck = myPosition.getRow();
-            int currentColCheck = myPosition.getColumn();
-
-            // Loop forever until explicitly break
-            while (true) {
-                currentRowCheck += currentDirection[0];
-                currentColCheck += currentDirection[1];
-
-                // Boundary Check: If outside the board, must stop immediately
-                if (currentRowCheck < 1 || currentRowCheck > 8
-                        || currentColCheck < 1 || currentColCheck > 8) {
-                    break;
-                }
-
-                ChessPosition potentialSpot = new ChessPosition(currentRowCheck, currentColCheck);
-                ChessPiece pieceAtDestination = theBoard.getPiece(potentialSpot);
-
-                if (pieceAtDestination == null) {
-                    // The path is clear, so add this move
-                    validMoveList.add(new ChessMove(myPosition, potentialSpot, null));
-                } else {
-                    // There is a piece here. Check if it is friend or foe.
-                    if (pieceAtDestination.getTeamColor() != myPiece.getTeamColor()) {
-                        // It is an enemy, so capture it, but cannot go further
-                        validMoveList.add(new ChessMove(myPosition, potentialSpot, null));
-                    }
-                    // If it's a friend or enemy, are blocked either way
-                    break;
-                }
-            }
-        }
-        return validMoveList;
+    protected void runSlidingLogic(ChessBoard theBoard, ChessPosition myPosition,
+                                   ChessPiece myPiece, long reachableSquares, MoveList validMoveList) {
+        // Empty squares and enemies can be taken, friends block the way
+        long landingSquares = reachableSquares & ~theBoard.getTeamOccupancy(myPiece.getTeamColor());
+        validMoveList.addMovesToTargets(ChessBoard.squareIndex(myPosition), landingSquares);
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package chess;
+
+/**
+ * Random 64-bit numbers for Zobrist hashing. A position key is the XOR of the number for every
+ * (piece, square) pair on the board plus the numbers for the side to move, the castling rights and
+ * the en passant file, so making a move only has to XOR a handful of numbers in and out.
+ *
+ * <p>The numbers come from a fixed seed, so keys are the same in every JVM and can be stored.
+ */
+public class ZobristKeys {
+
+    // [team * 6 + piece type ordinal][square], same indexing as the ChessBoard bitboards
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long BLACK_TO_MOVE;
+    // One number per combination of the 4 castling right bits
+    static final long[] CASTLING_RIGHTS = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        long state = 0x2545F4914F6CDD1DL;
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                state = nextRandom(state);
+                squares[square] = scramble(state);
+            }
+        }
+        state = nextRandom(state);
+        BLACK_TO_MOVE = scramble(state);
+        for (int rights = 0; rights < CASTLING_RIGHTS.length; rights++) {
+            state = nextRandom(state);
+            CASTLING_RIGHTS[rights] = rights == 0 ? 0L : scramble(state);
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            state = nextRandom(state);
+            EN_PASSANT_FILE[file] = scramble(state);
+        }
+    }
+
+    static long pieceSquare(ChessPiece piece, int square) {
+        return PIECE_SQUARE[ChessBoard.bitboardIndex(piece.getTeamColor(), piece.getPieceType())][square];
+    }
+
+    // xorshift64* generator: tiny, fast and good enough for hashing keys
+    private static long nextRandom(long state) {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state;
+    }
+
+    private static long scramble(long state) {
+        return state * 0x2545F4914F6CDD1DL;
+    }
+}
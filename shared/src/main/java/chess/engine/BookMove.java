@@ -0,0 +1,12 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * One move the opening book knows for a position.
+ *
+ * @param move   the move, already checked to be legal in the position
+ * @param weight how strongly the book recommends it; only the ratio to the other moves matters
+ */
+public record BookMove(ChessMove move, int weight) {
+}
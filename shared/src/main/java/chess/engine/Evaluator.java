@@ -0,0 +1,15 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Scores a position for the search. Implementations must be cheap, they run at every leaf.
+ */
+public interface Evaluator {
+
+    /**
+     * @return the score in centipawns from the point of view of the side to move
+     * (positive means the side to move is better)
+     */
+    int evaluate(ChessGame game);
+}
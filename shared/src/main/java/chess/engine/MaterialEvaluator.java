@@ -0,0 +1,29 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * The simplest useful evaluation: count the material of each side from the piece bitboards.
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    // Centipawn values in PieceType order: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    public static final int[] PIECE_VALUES = PieceSquareTables.PIECE_VALUES;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    @Override
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = 0;
+        for (ChessPiece.PieceType type : PIECE_TYPES) {
+            int difference = Long.bitCount(board.getPieceBitboard(ChessGame.TeamColor.WHITE, type))
+                    - Long.bitCount(board.getPieceBitboard(ChessGame.TeamColor.BLACK, type));
+            score += difference * PIECE_VALUES[type.ordinal()];
+        }
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
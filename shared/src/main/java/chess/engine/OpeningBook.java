@@ -0,0 +1,196 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveList;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An opening book file in the Polyglot entry layout, read through a memory-mapped buffer. The file
+ * is never loaded onto the heap: a lookup is a binary search over the mapped entries, so only the
+ * few pages it touches are read from disk, and the operating system caches them for everyone.
+ *
+ * <pre>
+ * entry (16 bytes, big-endian, sorted by key as an unsigned number)
+ *   bytes  0-7   position key
+ *   bytes  8-9   move: bits 0-5 end square, 6-11 start square, 12-14 promotion (1 knight .. 4 queen)
+ *   bytes 10-11  weight
+ *   bytes 12-15  learn data (not used)
+ * </pre>
+ *
+ * Squares are numbered like ChessBoard, so they go straight in and out of a packed move. Castling
+ * is stored as the king moving onto its own rook, as Polyglot does.
+ *
+ * <p>The position keys are {@link ChessGame#getZobristKey()}, not the keys of the Polyglot standard,
+ * so books have to be built with {@link OpeningBookWriter}. Lookups only read the buffer with
+ * absolute gets, so one open book can be shared between threads.
+ */
+public class OpeningBook implements AutoCloseable {
+
+    public static final int ENTRY_BYTES = 16;
+
+    // Polyglot promotion codes: 0 none, 1 knight, 2 bishop, 3 rook, 4 queen
+    private static final ChessPiece.PieceType[] PROMOTION_PIECES = {
+            null, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN
+    };
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+
+    /**
+     * Maps the book file. Nothing but the file size is read until the first lookup.
+     *
+     * @throws IOException if the file can't be opened or is not a whole number of entries
+     */
+    public OpeningBook(Path bookFile) throws IOException {
+        channel = FileChannel.open(bookFile, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size % ENTRY_BYTES != 0) {
+                throw new IOException("Error: " + bookFile + " is not an opening book");
+            }
+            // One mapped buffer can't be larger than 2 GB; real books are a few MB
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Error: Opening book " + bookFile + " is too large");
+            }
+            entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            entries.order(ByteOrder.BIG_ENDIAN);
+            entryCount = (int) (size / ENTRY_BYTES);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return every legal book move for the current position, highest weight first,
+     * or an empty list when the position is not in the book
+     */
+    public List<BookMove> lookup(ChessGame game) {
+        long key = game.getZobristKey();
+        List<BookMove> bookMoves = new ArrayList<>();
+        int index = firstEntryIndex(key);
+        if (index == entryCount || keyAt(index) != key) {
+            return bookMoves;
+        }
+
+        MoveList legalMoves = new MoveList();
+        game.collectValidMoves(legalMoves);
+        for (; index < entryCount && keyAt(index) == key; index++) {
+            int bookMove = Short.toUnsignedInt(entries.getShort(index * ENTRY_BYTES + 8));
+            int weight = Short.toUnsignedInt(entries.getShort(index * ENTRY_BYTES + 10));
+            // A move that isn't legal here means another position shares the key; it is skipped
+            int packedMove = findLegalMove(legalMoves, bookMove);
+            if (packedMove != PackedMove.NO_MOVE && weight > 0) {
+                bookMoves.add(new BookMove(PackedMove.toChessMove(packedMove), weight));
+            }
+        }
+        bookMoves.sort(Comparator.comparingInt(BookMove::weight).reversed());
+        return bookMoves;
+    }
+
+    /**
+     * @return the book move with the highest weight, or null when the position is not in the book
+     */
+    public BookMove bestMove(ChessGame game) {
+        List<BookMove> bookMoves = lookup(game);
+        return bookMoves.isEmpty() ? null : bookMoves.get(0);
+    }
+
+    /**
+     * Picks a book move at random, each with a chance in proportion to its weight, so games don't
+     * all follow the same line.
+     *
+     * @return the move, or null when the position is not in the book
+     */
+    public BookMove pickMove(ChessGame game, Random random) {
+        List<BookMove> bookMoves = lookup(game);
+        int totalWeight = 0;
+        for (BookMove bookMove : bookMoves) {
+            totalWeight += bookMove.weight();
+        }
+        if (totalWeight == 0) {
+            return null;
+        }
+        int roll = random.nextInt(totalWeight);
+        for (BookMove bookMove : bookMoves) {
+            roll -= bookMove.weight();
+            if (roll < 0) {
+                return bookMove;
+            }
+        }
+        return bookMoves.get(bookMoves.size() - 1);
+    }
+
+    /**
+     * @return how many entries (position and move pairs) the book holds
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return the Polyglot move code of a packed move, castles written as king takes own rook
+     */
+    static int encodeMove(int packedMove) {
+        int fromSquare = PackedMove.fromSquare(packedMove);
+        int toSquare = PackedMove.toSquare(packedMove);
+        if (PackedMove.isCastle(packedMove)) {
+            toSquare = toSquare > fromSquare ? fromSquare + 3 : fromSquare - 4;
+        }
+        int promotionCode = 0;
+        ChessPiece.PieceType promotion = PackedMove.promotionPiece(packedMove);
+        for (int code = 1; code < PROMOTION_PIECES.length; code++) {
+            if (PROMOTION_PIECES[code] == promotion) {
+                promotionCode = code;
+            }
+        }
+        return toSquare | (fromSquare << 6) | (promotionCode << 12);
+    }
+
+    private static int findLegalMove(MoveList legalMoves, int bookMove) {
+        for (int i = 0; i < legalMoves.size(); i++) {
+            if (encodeMove(legalMoves.get(i)) == bookMove) {
+                return legalMoves.get(i);
+            }
+        }
+        return PackedMove.NO_MOVE;
+    }
+
+    // Binary search for the first entry whose key is not below the given one (unsigned, like the file order)
+    private int firstEntryIndex(long key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_BYTES);
+    }
+}
@@ -0,0 +1,81 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects position and move pairs and writes them as a book file that {@link OpeningBook} can read.
+ * Adding the same move in the same position again adds up the weights, so a book can be built by
+ * feeding in the moves of many games.
+ */
+public class OpeningBookWriter {
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    // Key of the position and Polyglot move code -> weight so far
+    private final Map<BookEntryKey, Integer> weights = new LinkedHashMap<>();
+
+    private record BookEntryKey(long positionKey, int move) {
+    }
+
+    /**
+     * Adds a move for the current position of the game. The game is not changed.
+     *
+     * @throws IllegalArgumentException if the move is not legal in that position
+     */
+    public void add(ChessGame game, ChessMove move, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Error: A book move needs a positive weight");
+        }
+        if (!game.allValidMoves().contains(move)) {
+            throw new IllegalArgumentException("Error: " + move + " is not a legal move for the book");
+        }
+        int packedMove = PackedMove.fromChessMove(move, game.getBoard());
+        weights.merge(new BookEntryKey(game.getZobristKey(), OpeningBook.encodeMove(packedMove)), weight, Integer::sum);
+    }
+
+    /**
+     * @return how many different position and move pairs were added
+     */
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * Writes every entry sorted by key, replacing the file if it exists.
+     */
+    public void write(Path bookFile) throws IOException {
+        List<Map.Entry<BookEntryKey, Integer>> sorted = new ArrayList<>(weights.entrySet());
+        // Unsigned, because that is how the book's binary search compares keys
+        sorted.sort(Comparator.comparing((Map.Entry<BookEntryKey, Integer> entry) -> entry.getKey().positionKey(),
+                Long::compareUnsigned));
+
+        ByteBuffer buffer = ByteBuffer.allocate(sorted.size() * OpeningBook.ENTRY_BYTES).order(ByteOrder.BIG_ENDIAN);
+        for (Map.Entry<BookEntryKey, Integer> entry : sorted) {
+            buffer.putLong(entry.getKey().positionKey());
+            buffer.putShort((short) entry.getKey().move());
+            buffer.putShort((short) Math.min(entry.getValue(), MAX_WEIGHT));
+            buffer.putInt(0);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(bookFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
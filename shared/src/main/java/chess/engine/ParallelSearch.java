@@ -0,0 +1,139 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Lazy SMP: every thread searches the same position on its own copy of the game, and they all
+ * share one {@link TranspositionTable}. The threads never talk to each other directly; what one
+ * of them finds lands in the table and makes the others faster. Half of the helpers start one ply
+ * deeper than the main thread so they don't all walk the same tree in lockstep.
+ *
+ * <p>The main search runs on the calling thread and decides the move and the score; when it ends,
+ * the helpers are told to stop. With one thread this is exactly a single {@link SearchEngine} search,
+ * so results are repeatable.
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    public static final int DEFAULT_TABLE_MEGABYTES = 64;
+
+    private final TranspositionTable transpositionTable;
+    private final AtomicBoolean stopSignal = new AtomicBoolean();
+    // Index 0 is the main engine, the rest are helpers; each one is only ever used by one thread at a time
+    private final SearchEngine[] engines;
+    private final ExecutorService helperThreads;
+    // May be null, then every position is searched
+    private OpeningBook openingBook;
+
+    public ParallelSearch(int threadCount) {
+        this(threadCount, DEFAULT_TABLE_MEGABYTES, MaterialEvaluator::new);
+    }
+
+    /**
+     * @param evaluators makes one evaluator per thread, so evaluators are free to keep their own caches
+     */
+    public ParallelSearch(int threadCount, int tableMegabytes, Supplier<Evaluator> evaluators) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Error: A search needs at least one thread");
+        }
+        transpositionTable = new TranspositionTable(tableMegabytes);
+        engines = new SearchEngine[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            engines[i] = new SearchEngine(evaluators.get(), transpositionTable, stopSignal);
+        }
+        helperThreads = threadCount == 1 ? null : Executors.newFixedThreadPool(threadCount - 1, runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            // Never keep the JVM alive just because nobody closed the search
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches the current position of the game with every thread until the limits are reached
+     * by the main thread. The game is not touched; every thread plays on its own copy.
+     *
+     * @return the main thread's move, score and depth, with the nodes of all threads added up
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        // A book move needs no threads at all
+        SearchResult bookResult = SearchEngine.bookResult(openingBook, game);
+        if (bookResult != null) {
+            return bookResult;
+        }
+        stopSignal.set(false);
+        transpositionTable.newSearch();
+
+        List<Future<SearchResult>> helperResults = new ArrayList<>();
+        // Helpers run until the main thread is done, only a depth limit is kept so they can't run past it
+        SearchLimits helperLimits = new SearchLimits(limits.maxDepth() > 0 ? limits.maxDepth() : SearchEngine.MAX_PLY - 1,
+                0, 0);
+        for (int i = 1; i < engines.length; i++) {
+            SearchEngine helper = engines[i];
+            ChessGame helperGame = game.makeDeepCopy();
+            int firstDepth = 1 + (i % 2);
+            helperResults.add(helperThreads.submit(() -> helper.search(helperGame, helperLimits, firstDepth)));
+        }
+
+        SearchResult main;
+        try {
+            main = engines[0].search(game.makeDeepCopy(), limits, 1);
+        } finally {
+            stopSignal.set(true);
+        }
+
+        long totalNodes = main.nodes();
+        for (Future<SearchResult> helperResult : helperResults) {
+            totalNodes += waitFor(helperResult).nodes();
+        }
+        return new SearchResult(main.bestMove(), main.score(), main.depth(), totalNodes, main.elapsedNanos());
+    }
+
+    /**
+     * Asks a running search (on another thread) to stop as soon as possible.
+     */
+    public void stop() {
+        stopSignal.set(true);
+    }
+
+    /**
+     * Same as {@link SearchEngine#setOpeningBook(OpeningBook)}.
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public int getThreadCount() {
+        return engines.length;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    @Override
+    public void close() {
+        if (helperThreads != null) {
+            helperThreads.shutdownNow();
+        }
+    }
+
+    private static SearchResult waitFor(Future<SearchResult> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Error: Interrupted while waiting for search threads", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error: A search thread failed", e.getCause());
+        }
+    }
+}
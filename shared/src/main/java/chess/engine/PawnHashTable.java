@@ -0,0 +1,81 @@
+package chess.engine;
+
+/**
+ * Remembers the pawn structure score of a position by its pawn Zobrist key. The pawns change far
+ * less often than the other pieces, so during a search nearly every lookup is a hit.
+ *
+ * <p>Same layout as the {@link TranspositionTable}: two longs per entry, the first being the key
+ * XORed with the second, so a table shared between threads needs no locks. The data long holds the
+ * middlegame score in its low 32 bits and the endgame score in its high 32 bits.
+ */
+public class PawnHashTable {
+
+    // Never a real entry: no pawn structure is worth Integer.MIN_VALUE in the endgame
+    public static final long MISS = Long.MIN_VALUE;
+
+    private final long[] slots;
+    private final int entryMask;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * @param entryCount how many pawn structures to keep, rounded down to a power of two
+     */
+    public PawnHashTable(int entryCount) {
+        if (entryCount < 1) {
+            throw new IllegalArgumentException("Error: Pawn hash table needs at least one entry");
+        }
+        int entries = Math.min(Integer.highestOneBit(entryCount), 1 << 26);
+        slots = new long[entries * 2];
+        entryMask = entries - 1;
+    }
+
+    /**
+     * @return the stored data for the pawn key, or {@link #MISS} when it is not in the table;
+     * read it with {@link #midgame(long)} and {@link #endgame(long)}
+     */
+    public long probe(long pawnKey) {
+        int slot = slotIndex(pawnKey);
+        long data = slots[slot + 1];
+        // A position without pawns has key 0 and scores 0, which is exactly what an empty slot holds
+        if ((slots[slot] ^ data) == pawnKey) {
+            hits++;
+            return data;
+        }
+        misses++;
+        return MISS;
+    }
+
+    /**
+     * @return the data that was stored, same as {@link #probe(long)} would now return
+     */
+    public long store(long pawnKey, int midgame, int endgame) {
+        long data = ((long) endgame << 32) | (midgame & 0xFFFFFFFFL);
+        int slot = slotIndex(pawnKey);
+        slots[slot] = pawnKey ^ data;
+        slots[slot + 1] = data;
+        return data;
+    }
+
+    public static int midgame(long data) {
+        return (int) data;
+    }
+
+    public static int endgame(long data) {
+        return (int) (data >> 32);
+    }
+
+    // Counted without synchronization, so with several threads these are only a rough guide
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    private int slotIndex(long pawnKey) {
+        return (int) (pawnKey & entryMask) * 2;
+    }
+}
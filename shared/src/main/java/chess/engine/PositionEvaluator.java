@@ -0,0 +1,248 @@
+package chess.engine;
+
+import chess.AttackTables;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MagicBitboards;
+import chess.PieceSquareTables;
+
+/**
+ * A fuller evaluation than counting material: material and piece-square tables, mobility, pawn
+ * structure and king safety, each with a middlegame and an endgame value that are blended by how
+ * much material is left (a "tapered" evaluation).
+ *
+ * <p>The material and piece-square part is not computed here at all, the board keeps it up to date
+ * on every move. Pawn structure is looked up in a {@link PawnHashTable} by the board's pawn key and
+ * only worked out when the pawns are new. Only mobility and king safety look at the pieces each time.
+ *
+ * <p>The evaluator keeps no state besides the pawn table, which is safe to share, so one instance
+ * can serve several threads (the server uses one for every game it reports on).
+ */
+public class PositionEvaluator implements Evaluator {
+
+    public static final int DEFAULT_PAWN_TABLE_ENTRIES = 1 << 14;
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+    private static final ChessGame.TeamColor[] TEAMS = {ChessGame.TeamColor.WHITE, ChessGame.TeamColor.BLACK};
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    // Centipawns per square a piece can go to, by PieceType ordinal, counted from a typical number of squares
+    private static final int[] MOBILITY_MIDGAME = {0, 1, 4, 4, 2, 0};
+    private static final int[] MOBILITY_ENDGAME = {0, 2, 5, 4, 4, 0};
+    private static final int[] MOBILITY_BASELINE = {0, 14, 7, 4, 7, 0};
+
+    private static final int DOUBLED_PAWN_MIDGAME = -10;
+    private static final int DOUBLED_PAWN_ENDGAME = -20;
+    private static final int ISOLATED_PAWN_MIDGAME = -10;
+    private static final int ISOLATED_PAWN_ENDGAME = -15;
+    // By rows from the team's own back row, so index 6 is one step from promoting
+    private static final int[] PASSED_PAWN_MIDGAME = {0, 0, 5, 10, 20, 35, 60, 0};
+    private static final int[] PASSED_PAWN_ENDGAME = {0, 5, 10, 20, 35, 60, 100, 0};
+
+    // For each file next to a king on its first two rows that has no pawn of its own in front of it
+    private static final int MISSING_SHIELD_PAWN = -15;
+    // Attack units for each attacked square around the enemy king, by PieceType ordinal
+    private static final int[] KING_ATTACK_WEIGHTS = {0, 5, 2, 2, 3, 0};
+    private static final int MAX_KING_DANGER = 500;
+
+    private static final long[] FILE_MASKS = new long[8];
+    private static final long[] ADJACENT_FILE_MASKS = new long[8];
+    // [team][square]: squares on the same and neighbouring files in front of a pawn, where enemy pawns stop it
+    private static final long[][] PASSED_PAWN_MASKS = new long[2][64];
+    // [team][square]: the two rows in front of a king on the same and neighbouring files
+    private static final long[][] KING_SHIELD_MASKS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILE_MASKS[file] = 0x0101010101010101L << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILE_MASKS[file] = (file > 0 ? FILE_MASKS[file - 1] : 0L) | (file < 7 ? FILE_MASKS[file + 1] : 0L);
+        }
+        for (int square = 0; square < 64; square++) {
+            int row = square >>> 3;
+            long files = FILE_MASKS[square & 7] | ADJACENT_FILE_MASKS[square & 7];
+            // Rows above this one for White, below it for Black
+            long rowsAbove = row == 7 ? 0L : -1L << ((row + 1) * 8);
+            long rowsBelow = (1L << (row * 8)) - 1;
+            PASSED_PAWN_MASKS[WHITE][square] = files & rowsAbove;
+            PASSED_PAWN_MASKS[BLACK][square] = files & rowsBelow;
+            long twoRowsAbove = row >= 5 ? rowsAbove : rowsAbove & ((1L << ((row + 3) * 8)) - 1);
+            long twoRowsBelow = row <= 1 ? rowsBelow : rowsBelow & (-1L << ((row - 2) * 8));
+            KING_SHIELD_MASKS[WHITE][square] = files & twoRowsAbove;
+            KING_SHIELD_MASKS[BLACK][square] = files & twoRowsBelow;
+        }
+    }
+
+    private final PawnHashTable pawnTable;
+
+    public PositionEvaluator() {
+        this(new PawnHashTable(DEFAULT_PAWN_TABLE_ENTRIES));
+    }
+
+    public PositionEvaluator(PawnHashTable pawnTable) {
+        this.pawnTable = pawnTable;
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        int score = evaluateForWhite(game.getBoard());
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Scores the board on its own, without a side to move. This is what a "who is winning"
+     * indicator wants: positive means White is better, negative means Black is.
+     *
+     * @return the score in centipawns from White's point of view
+     */
+    public int evaluateForWhite(ChessBoard board) {
+        int midgame = board.getMidgameScore();
+        int endgame = board.getEndgameScore();
+
+        long pawnData = pawnStructure(board);
+        midgame += PawnHashTable.midgame(pawnData);
+        endgame += PawnHashTable.endgame(pawnData);
+
+        long occupied = board.getOccupancy();
+        long whitePawns = board.getPieceBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        long blackPawns = board.getPieceBitboard(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        // Squares guarded by enemy pawns don't count as places a piece can really go
+        long[] pawnAttacks = {whitePawnAttacks(whitePawns), blackPawnAttacks(blackPawns)};
+
+        for (int team = WHITE; team <= BLACK; team++) {
+            int enemy = 1 - team;
+            int sign = team == WHITE ? 1 : -1;
+            ChessGame.TeamColor color = TEAMS[team];
+            long mobilityArea = ~board.getTeamOccupancy(color) & ~pawnAttacks[enemy];
+
+            int enemyKingSquare = board.findKingSquare(TEAMS[enemy]);
+            long enemyKingZone = enemyKingSquare < 0 ? 0L
+                    : AttackTables.kingAttacks(enemyKingSquare) | (1L << enemyKingSquare);
+            int kingAttackers = 0;
+            int kingAttackUnits = 0;
+
+            // Queens, bishops, knights and rooks (PieceType ordinals 1 to 4)
+            for (int typeIndex = 1; typeIndex <= 4; typeIndex++) {
+                ChessPiece.PieceType type = PIECE_TYPES[typeIndex];
+                long pieces = board.getPieceBitboard(color, type);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    long attacks = attacks(type, square, occupied);
+
+                    int reachable = Long.bitCount(attacks & mobilityArea) - MOBILITY_BASELINE[typeIndex];
+                    midgame += sign * reachable * MOBILITY_MIDGAME[typeIndex];
+                    endgame += sign * reachable * MOBILITY_ENDGAME[typeIndex];
+
+                    long kingZoneAttacks = attacks & enemyKingZone;
+                    if (kingZoneAttacks != 0) {
+                        kingAttackers++;
+                        kingAttackUnits += Long.bitCount(kingZoneAttacks) * KING_ATTACK_WEIGHTS[typeIndex];
+                    }
+                }
+            }
+
+            // A lone attacker is rarely dangerous; past that the danger grows faster than the attacks
+            if (kingAttackers >= 2) {
+                midgame += sign * Math.min(kingAttackUnits * kingAttackUnits / 4, MAX_KING_DANGER);
+            }
+            // The pawns in front of our own king, also only a middlegame concern
+            int ownKingSquare = board.findKingSquare(color);
+            if (ownKingSquare >= 0) {
+                long ownPawns = team == WHITE ? whitePawns : blackPawns;
+                midgame += sign * missingShieldPawns(team, ownKingSquare, ownPawns) * MISSING_SHIELD_PAWN;
+            }
+        }
+
+        int phase = Math.min(board.getGamePhase(), PieceSquareTables.MAX_PHASE);
+        return (midgame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    public PawnHashTable getPawnTable() {
+        return pawnTable;
+    }
+
+    // Doubled, isolated and passed pawns for both teams, White minus Black, from the table when possible
+    private long pawnStructure(ChessBoard board) {
+        long pawnKey = board.getPawnZobristKey();
+        long data = pawnTable.probe(pawnKey);
+        if (data != PawnHashTable.MISS) {
+            return data;
+        }
+
+        long[] pawns = {
+                board.getPieceBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                board.getPieceBitboard(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN)
+        };
+        int midgame = 0;
+        int endgame = 0;
+        for (int team = WHITE; team <= BLACK; team++) {
+            int sign = team == WHITE ? 1 : -1;
+            long own = pawns[team];
+            long enemy = pawns[1 - team];
+
+            for (int file = 0; file < 8; file++) {
+                int onFile = Long.bitCount(own & FILE_MASKS[file]);
+                if (onFile > 1) {
+                    midgame += sign * (onFile - 1) * DOUBLED_PAWN_MIDGAME;
+                    endgame += sign * (onFile - 1) * DOUBLED_PAWN_ENDGAME;
+                }
+                if (onFile > 0 && (own & ADJACENT_FILE_MASKS[file]) == 0) {
+                    midgame += sign * onFile * ISOLATED_PAWN_MIDGAME;
+                    endgame += sign * onFile * ISOLATED_PAWN_ENDGAME;
+                }
+            }
+
+            long remaining = own;
+            while (remaining != 0) {
+                int square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                if ((enemy & PASSED_PAWN_MASKS[team][square]) == 0) {
+                    int rowsAdvanced = team == WHITE ? square >>> 3 : 7 - (square >>> 3);
+                    midgame += sign * PASSED_PAWN_MIDGAME[rowsAdvanced];
+                    endgame += sign * PASSED_PAWN_ENDGAME[rowsAdvanced];
+                }
+            }
+        }
+        return pawnTable.store(pawnKey, midgame, endgame);
+    }
+
+    private static int missingShieldPawns(int team, int kingSquare, long ownPawns) {
+        int backRowDistance = team == WHITE ? kingSquare >>> 3 : 7 - (kingSquare >>> 3);
+        // A king that walked up the board is judged by the mobility of the pieces around it instead
+        if (backRowDistance > 1) {
+            return 0;
+        }
+        long shieldPawns = ownPawns & KING_SHIELD_MASKS[team][kingSquare];
+        int kingFile = kingSquare & 7;
+        int missing = 0;
+        for (int file = Math.max(kingFile - 1, 0); file <= Math.min(kingFile + 1, 7); file++) {
+            if ((shieldPawns & FILE_MASKS[file]) == 0) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    private static long attacks(ChessPiece.PieceType type, int square, long occupied) {
+        return switch (type) {
+            case QUEEN -> MagicBitboards.queenAttacks(square, occupied);
+            case BISHOP -> MagicBitboards.bishopAttacks(square, occupied);
+            case KNIGHT -> AttackTables.knightAttacks(square);
+            case ROOK -> MagicBitboards.rookAttacks(square, occupied);
+            default -> 0L;
+        };
+    }
+
+    // A white pawn captures up and to either side; the file masks stop it wrapping around the board edge
+    private static long whitePawnAttacks(long pawns) {
+        return ((pawns & ~FILE_MASKS[0]) << 7) | ((pawns & ~FILE_MASKS[7]) << 9);
+    }
+
+    private static long blackPawnAttacks(long pawns) {
+        return ((pawns & ~FILE_MASKS[0]) >>> 9) | ((pawns & ~FILE_MASKS[7]) >>> 7);
+    }
+}
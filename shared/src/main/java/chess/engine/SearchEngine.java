@@ -0,0 +1,451 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveList;
+import chess.MoveUndoRecord;
+import chess.PackedMove;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds a good move for the side to move: iterative deepening negamax with alpha-beta pruning,
+ * a quiescence search over captures at the leaves, and move ordering by the previous best move,
+ * MVV-LVA for captures, killer moves and the history heuristic for quiet moves. Results are kept
+ * in a {@link TranspositionTable}, which also supplies the best move to try first in every node.
+ *
+ * <p>The search plays its moves on the game it is given with make/unmake and leaves it exactly as
+ * it found it. One engine is meant for one thread; its buffers are reused from one search to the next.
+ */
+public class SearchEngine {
+
+    public static final int MATE_SCORE = 30000;
+    public static final int INFINITE_SCORE = 32000;
+    public static final int MAX_PLY = 128;
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    // Move ordering buckets, highest first: the best move so far, captures and promotions, killers, history
+    private static final int BEST_MOVE_ORDER = 1_000_000;
+    private static final int CAPTURE_ORDER = 100_000;
+    private static final int FIRST_KILLER_ORDER = 90_000;
+    private static final int SECOND_KILLER_ORDER = 80_000;
+    private static final int HISTORY_LIMIT = 50_000;
+    private static final int SKIPPED_MOVE = Integer.MIN_VALUE;
+    // The clock is only read every this many nodes (must be a power of two)
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    private static final int MAX_MOVES = 256;
+
+    private final Evaluator evaluator;
+    // May be null, then every position is searched from scratch
+    private final TranspositionTable transpositionTable;
+    // One move list and one ordering array per ply, so the search allocates nothing per node
+    private final MoveList[] movesPerPly = new MoveList[MAX_PLY];
+    private final int[][] orderPerPly = new int[MAX_PLY][MAX_MOVES];
+    // Two quiet moves per ply that recently caused a cutoff there
+    private final int[][] killerMoves = new int[MAX_PLY][2];
+    // How often a quiet move from one square to another caused a cutoff, weighted by depth
+    private final int[][] historyScores = new int[ChessBoard.SQUARE_COUNT][ChessBoard.SQUARE_COUNT];
+
+    private ChessGame game;
+    private long nodes;
+    private long maxNodes;
+    private long deadlineNanos;
+    private boolean stopped;
+    // Set to end the search early; a parallel search hands every worker the same one
+    private final AtomicBoolean stopSignal;
+    // False for the workers of a ParallelSearch, which resets the stop signal and ages the table itself
+    private final boolean standalone;
+    private int rootBestMove;
+    private int rootBestScore;
+    // May be null, then every position is searched
+    private OpeningBook openingBook;
+
+    public SearchEngine() {
+        this(new MaterialEvaluator());
+    }
+
+    public SearchEngine(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param transpositionTable the table to use, which may be shared with engines on other threads,
+     *                           or null to search without one
+     */
+    public SearchEngine(Evaluator evaluator, TranspositionTable transpositionTable) {
+        this(evaluator, transpositionTable, null);
+    }
+
+    SearchEngine(Evaluator evaluator, TranspositionTable transpositionTable, AtomicBoolean sharedStopSignal) {
+        this.evaluator = evaluator;
+        this.transpositionTable = transpositionTable;
+        this.standalone = sharedStopSignal == null;
+        this.stopSignal = standalone ? new AtomicBoolean() : sharedStopSignal;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            movesPerPly[ply] = new MoveList(MAX_MOVES);
+        }
+    }
+
+    /**
+     * Searches the current position of the game until one of the limits is reached.
+     * Every finished iteration goes one ply deeper; when a limit cuts an iteration short, its best
+     * move is still used if at least one root move was searched to the end.
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        SearchResult bookResult = bookResult(openingBook, game);
+        return bookResult != null ? bookResult : search(game, limits, 1);
+    }
+
+    /**
+     * Positions found in the book are answered with its highest weighted move straight away,
+     * reported with depth 0, score 0 and no nodes.
+     *
+     * @param openingBook the book to use, or null to always search
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    static SearchResult bookResult(OpeningBook openingBook, ChessGame game) {
+        if (openingBook == null) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        BookMove bookMove = openingBook.bestMove(game);
+        return bookMove == null ? null : new SearchResult(bookMove.move(), 0, 0, 0, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Same as {@link #search(ChessGame, SearchLimits)} with the first iteration at {@code firstDepth},
+     * which is how the helper threads of a parallel search are kept out of step with each other.
+     */
+    SearchResult search(ChessGame game, SearchLimits limits, int firstDepth) {
+        long startNanos = System.nanoTime();
+        this.game = game;
+        nodes = 0;
+        stopped = false;
+        if (standalone) {
+            stopSignal.set(false);
+        }
+        maxNodes = limits.maxNodes() > 0 ? limits.maxNodes() : Long.MAX_VALUE;
+        deadlineNanos = limits.maxTimeMillis() > 0 ? startNanos + limits.maxTimeMillis() * 1_000_000L : Long.MAX_VALUE;
+        int maxDepth = limits.maxDepth() > 0 ? Math.min(limits.maxDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+        clearOrderingTables();
+        if (transpositionTable != null && standalone) {
+            transpositionTable.newSearch();
+        }
+
+        MoveList rootMoves = new MoveList();
+        game.collectValidMoves(rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = game.isInCheck(game.getTeamTurn()) ? -MATE_SCORE : 0;
+            return new SearchResult(null, score, 0, 0, System.nanoTime() - startNanos);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = evaluator.evaluate(game);
+        int completedDepth = 0;
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            rootBestMove = PackedMove.NO_MOVE;
+            rootBestScore = -INFINITE_SCORE;
+            negamax(depth, 0, -INFINITE_SCORE, INFINITE_SCORE, bestMove);
+            if (rootBestMove != PackedMove.NO_MOVE) {
+                bestMove = rootBestMove;
+                bestScore = rootBestScore;
+            }
+            if (stopped) {
+                break;
+            }
+            completedDepth = depth;
+            // A forced mate that fits inside this depth can't get any better by looking deeper
+            if (isMateScore(bestScore) && MATE_SCORE - Math.abs(bestScore) <= depth) {
+                break;
+            }
+        }
+        return new SearchResult(PackedMove.toChessMove(bestMove), bestScore, completedDepth, nodes,
+                System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Asks a running search (on another thread) to stop as soon as possible.
+     */
+    public void stop() {
+        stopSignal.set(true);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) > MATE_SCORE - MAX_PLY;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, int bestMoveHint) {
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (shouldStop()) {
+            return 0;
+        }
+        if (ply > 0 && game.isDraw()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+
+        long key = game.getZobristKey();
+        int hashMove = bestMoveHint;
+        if (transpositionTable != null) {
+            long entry = transpositionTable.probe(key);
+            if (entry != TranspositionTable.NO_ENTRY) {
+                if (hashMove == PackedMove.NO_MOVE) {
+                    hashMove = TranspositionTable.move(entry);
+                }
+                // The root always searches, it has to come back with a move
+                if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                    int storedScore = fromTableScore(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && storedScore >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && storedScore <= alpha)) {
+                        return storedScore;
+                    }
+                }
+            }
+        }
+
+        MoveList moves = movesPerPly[ply];
+        moves.clear();
+        game.collectValidMoves(moves);
+        if (moves.isEmpty()) {
+            // Mates closer to the root score higher, so the search goes for the quickest one
+            return game.isInCheck(game.getTeamTurn()) ? -MATE_SCORE + ply : 0;
+        }
+
+        int[] order = orderPerPly[ply];
+        orderMoves(moves, order, ply, hashMove, false);
+        ChessBoard board = game.getBoard();
+        int originalAlpha = alpha;
+        int bestScore = -INFINITE_SCORE;
+        int bestMove = PackedMove.NO_MOVE;
+        for (int i = 0; i < moves.size(); i++) {
+            pickNextMove(moves, order, i);
+            int move = moves.get(i);
+            boolean quiet = !isTactical(board, move);
+
+            MoveUndoRecord record = game.makeUncheckedMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha, PackedMove.NO_MOVE);
+            game.unmakeMove(record);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                    rootBestScore = score;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (score >= beta) {
+                    if (quiet) {
+                        rememberCutoff(move, ply, depth);
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (transpositionTable != null) {
+            int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                    : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+            // Below alpha every move failed low, so none of them is known to be best
+            int storedMove = bound == TranspositionTable.BOUND_UPPER ? PackedMove.NO_MOVE : bestMove;
+            transpositionTable.store(key, storedMove, toTableScore(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    // Mate scores count plies from the root; in the table they count from the stored position instead,
+    // so they stay right when the position is reached at another ply
+    private static int toTableScore(int score, int ply) {
+        if (isMateScore(score)) {
+            return score > 0 ? score + ply : score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (isMateScore(score)) {
+            return score > 0 ? score - ply : score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Keeps searching captures and promotions past the depth limit until the position is quiet,
+     * so a leaf is never scored in the middle of an exchange. When in check every move is searched.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        if (shouldStop()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int bestScore = -INFINITE_SCORE;
+        if (!inCheck) {
+            // Stand pat: the side to move doesn't have to capture, so the static score is a lower bound
+            bestScore = evaluator.evaluate(game);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MoveList moves = movesPerPly[ply];
+        moves.clear();
+        game.collectValidMoves(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+
+        int[] order = orderPerPly[ply];
+        orderMoves(moves, order, ply, PackedMove.NO_MOVE, !inCheck);
+        for (int i = 0; i < moves.size(); i++) {
+            pickNextMove(moves, order, i);
+            if (order[i] == SKIPPED_MOVE) {
+                break; // Only quiet moves are left
+            }
+            MoveUndoRecord record = game.makeUncheckedMove(moves.get(i));
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.unmakeMove(record);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (score >= beta) {
+                    break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    // --- Move ordering ---
+
+    private void orderMoves(MoveList moves, int[] order, int ply, int bestMoveHint, boolean tacticalOnly) {
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (bestMoveHint != PackedMove.NO_MOVE && sameMove(move, bestMoveHint)) {
+                order[i] = BEST_MOVE_ORDER;
+            } else if (isTactical(board, move)) {
+                order[i] = CAPTURE_ORDER + mvvLva(board, move);
+            } else if (tacticalOnly) {
+                order[i] = SKIPPED_MOVE;
+            } else if (sameMove(move, killerMoves[ply][0])) {
+                order[i] = FIRST_KILLER_ORDER;
+            } else if (sameMove(move, killerMoves[ply][1])) {
+                order[i] = SECOND_KILLER_ORDER;
+            } else {
+                order[i] = historyScores[PackedMove.fromSquare(move)][PackedMove.toSquare(move)];
+            }
+        }
+    }
+
+    // Selection sort one step at a time: most nodes cut off after the first few moves,
+    // so sorting the whole list up front would be wasted work
+    private static void pickNextMove(MoveList moves, int[] order, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (order[i] > order[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int kept = order[index];
+            order[index] = order[best];
+            order[best] = kept;
+        }
+    }
+
+    // Most valuable victim first, and among those the least valuable attacker first
+    private static int mvvLva(ChessBoard board, int move) {
+        ChessPiece victim = board.getPiece(PackedMove.toSquare(move));
+        int victimValue = PackedMove.isEnPassant(move) ? MaterialEvaluator.PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()]
+                : victim == null ? 0 : MaterialEvaluator.PIECE_VALUES[victim.getPieceType().ordinal()];
+        ChessPiece.PieceType promotion = PackedMove.promotionPiece(move);
+        if (promotion != null) {
+            victimValue += MaterialEvaluator.PIECE_VALUES[promotion.ordinal()];
+        }
+        ChessPiece attacker = board.getPiece(PackedMove.fromSquare(move));
+        return victimValue * 10 - MaterialEvaluator.PIECE_VALUES[attacker.getPieceType().ordinal()] / 10;
+    }
+
+    private static boolean isTactical(ChessBoard board, int move) {
+        return board.getPiece(PackedMove.toSquare(move)) != null || PackedMove.isEnPassant(move)
+                || PackedMove.promotionPiece(move) != null;
+    }
+
+    // Compares squares and promotion only, the flags come from the position the move was made in
+    private static boolean sameMove(int first, int second) {
+        return (first & 0xFFFF) == (second & 0xFFFF);
+    }
+
+    private void rememberCutoff(int move, int ply, int depth) {
+        if (!sameMove(move, killerMoves[ply][0])) {
+            killerMoves[ply][1] = killerMoves[ply][0];
+            killerMoves[ply][0] = move;
+        }
+        int[] fromRow = historyScores[PackedMove.fromSquare(move)];
+        fromRow[PackedMove.toSquare(move)] += depth * depth;
+        if (fromRow[PackedMove.toSquare(move)] > HISTORY_LIMIT) {
+            // Halve everything so old results fade and the scores stay below the killer bucket
+            for (int[] row : historyScores) {
+                for (int to = 0; to < row.length; to++) {
+                    row[to] /= 2;
+                }
+            }
+        }
+    }
+
+    private void clearOrderingTables() {
+        for (int[] killers : killerMoves) {
+            killers[0] = PackedMove.NO_MOVE;
+            killers[1] = PackedMove.NO_MOVE;
+        }
+        for (int[] row : historyScores) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    // --- Limits ---
+
+    private boolean shouldStop() {
+        if (stopped) {
+            return true;
+        }
+        nodes++;
+        if (nodes >= maxNodes || ((nodes & (TIME_CHECK_INTERVAL - 1)) == 0
+                && (stopSignal.get() || System.nanoTime() >= deadlineNanos))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+}
@@ -0,0 +1,33 @@
+package chess.engine;
+
+/**
+ * When a search has to stop. The search ends at whichever limit it reaches first;
+ * a limit of 0 means that limit is not used.
+ *
+ * @param maxDepth      the deepest iteration to finish, in plies
+ * @param maxNodes      the number of nodes to visit at most
+ * @param maxTimeMillis the wall clock time to use at most
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long maxTimeMillis) {
+
+    public SearchLimits {
+        if (maxDepth < 0 || maxNodes < 0 || maxTimeMillis < 0) {
+            throw new IllegalArgumentException("Error: Search limits can't be negative");
+        }
+        if (maxDepth == 0 && maxNodes == 0 && maxTimeMillis == 0) {
+            throw new IllegalArgumentException("Error: A search needs at least one limit");
+        }
+    }
+
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(0, maxNodes, 0);
+    }
+
+    public static SearchLimits time(long maxTimeMillis) {
+        return new SearchLimits(0, 0, maxTimeMillis);
+    }
+}
@@ -0,0 +1,20 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * What a search found.
+ *
+ * @param bestMove     the move to play, or null when the side to move has no legal move
+ * @param score        centipawns for the side to move; mates are reported near
+ *                     {@link SearchEngine#MATE_SCORE} (see {@link SearchEngine#isMateScore(int)})
+ * @param depth        the last iteration that was searched completely, 0 for a move from the opening book
+ * @param nodes        positions visited, quiescence included
+ * @param elapsedNanos wall clock time of the search
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long elapsedNanos) {
+
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+}
@@ -0,0 +1,185 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table of search results, keyed by the Zobrist key of the position, so a
+ * position reached again through another move order is not searched twice.
+ *
+ * <p>Everything lives in one {@code long[]}: two longs per entry, two entries per bucket. The first
+ * long of an entry is the key XORed with the second (the packed data), so an entry written half by
+ * one thread and half by another no longer matches its key and simply reads as a miss. That makes
+ * the table safe to share between search threads without any locks.
+ *
+ * <pre>
+ * data bits  0-18  best move (a PackedMove, flags included)
+ *            19-20 bound: exact, lower (the score is at least this) or upper (at most this)
+ *            21-28 depth searched
+ *            29-36 search generation, to tell old entries from new ones
+ *            48-63 score (signed)
+ * </pre>
+ *
+ * In each bucket the first entry keeps the deepest result of the current search and the second
+ * one always takes the newest result.
+ */
+public class TranspositionTable {
+
+    public static final long NO_ENTRY = 0L;
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+    private static final int BYTES_PER_BUCKET = BUCKET_LONGS * Long.BYTES;
+
+    private static final int MOVE_MASK = 0x7FFFF;
+    private static final int BOUND_SHIFT = 19;
+    private static final int DEPTH_SHIFT = 21;
+    private static final int GENERATION_SHIFT = 29;
+    private static final int SCORE_SHIFT = 48;
+
+    private final long[] slots;
+    private final long bucketMask;
+    private volatile int generation;
+
+    // LongAdder spreads the counting over cells, so threads don't fight over one counter
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param sizeInMegabytes memory to use, rounded down to a power of two number of buckets
+     */
+    public TranspositionTable(int sizeInMegabytes) {
+        if (sizeInMegabytes < 1) {
+            throw new IllegalArgumentException("Error: Transposition table needs at least 1 MB");
+        }
+        long buckets = Long.highestOneBit((long) sizeInMegabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        // A Java array can't hold more than 2^31 - 1 longs
+        buckets = Math.min(buckets, 1L << 28);
+        slots = new long[(int) (buckets * BUCKET_LONGS)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * @return the packed data stored for the key, or {@link #NO_ENTRY} when there is none;
+     * read it with {@link #move(long)}, {@link #score(long)}, {@link #depth(long)} and {@link #bound(long)}
+     */
+    public long probe(long key) {
+        int bucket = bucketIndex(key);
+        for (int slot = bucket; slot < bucket + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = slots[slot + 1];
+            if ((slots[slot] ^ data) == key && data != NO_ENTRY) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores a search result. Mate scores should already be made relative to this position.
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        long data = (move & MOVE_MASK)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) Math.min(Math.max(depth, 0), 0xFF) << DEPTH_SHIFT)
+                | ((long) (generation & 0xFF) << GENERATION_SHIFT)
+                | ((long) score << SCORE_SHIFT);
+
+        int bucket = bucketIndex(key);
+        long deepData = slots[bucket + 1];
+        boolean sameKey = (slots[bucket] ^ deepData) == key;
+        // The deep entry is only given up for the same position, an entry from an older search,
+        // or a result that is at least as deep
+        if (sameKey || deepData == NO_ENTRY || generation(deepData) != (generation & 0xFF) || depth >= depth(deepData)) {
+            if (sameKey && move == 0) {
+                // Keep the best move we already know when the new result doesn't have one
+                data |= deepData & MOVE_MASK;
+            }
+            writeEntry(bucket, key, data);
+        } else {
+            writeEntry(bucket + ENTRY_LONGS, key, data);
+        }
+        stores.increment();
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches are replaced first.
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        resetStatistics();
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        stores.reset();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return hits divided by probes, or 0 before the first probe
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long probes = hitCount + misses.sum();
+        return probes == 0 ? 0.0 : (double) hitCount / probes;
+    }
+
+    /**
+     * @return how many entries the table can hold
+     */
+    public int capacity() {
+        return slots.length / ENTRY_LONGS;
+    }
+
+    public static int move(long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    public static int score(long data) {
+        return (int) (data >> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+
+    private int bucketIndex(long key) {
+        // The low bits of a Zobrist key are as random as the high ones
+        return (int) (key & bucketMask) * BUCKET_LONGS;
+    }
+
+    private void writeEntry(int slot, long key, long data) {
+        slots[slot] = key ^ data;
+        slots[slot + 1] = data;
+    }
+}
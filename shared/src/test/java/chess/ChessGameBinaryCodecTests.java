@@ -0,0 +1,49 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that the binary game encoding keeps every part of the game.
+ */
+public class ChessGameBinaryCodecTests {
+
+    /**
+     * This test verify that the perft positions and a game in progress survive the round trip.
+     */
+    @Test
+    public void gamesRoundTrip() throws InvalidMoveException {
+        for (PerftRunner.PerftPosition position : PerftRunner.STANDARD_POSITIONS) {
+            ChessGame game = FenNotation.parse(position.fen());
+            byte[] bytes = ChessGameBinaryCodec.encode(game);
+            Assertions.assertEquals(ChessGameBinaryCodec.ENCODED_LENGTH, bytes.length);
+            Assertions.assertEquals(position.fen(), FenNotation.format(ChessGameBinaryCodec.decode(bytes)));
+        }
+
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+        ChessGame decoded = ChessGameBinaryCodec.decodeFromString(ChessGameBinaryCodec.encodeToString(game));
+        Assertions.assertEquals(FenNotation.format(game), FenNotation.format(decoded));
+        Assertions.assertEquals(game, decoded);
+    }
+
+    /**
+     * This test checks that garbage is rejected instead of producing a broken game.
+     */
+    @Test
+    public void invalidBytesRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameBinaryCodec.decode(new byte[5]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameBinaryCodec.decodeFromString("{\"x\":1}"));
+
+        byte[] bytes = ChessGameBinaryCodec.encode(new ChessGame());
+        bytes[1] = 0x77; // code 7 is not a piece
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameBinaryCodec.decode(bytes));
+
+        // Byte 34 is the en passant square: off the board, or on a row no double step skips over
+        for (int badSquare : new int[]{100, 30}) {
+            byte[] badEnPassant = ChessGameBinaryCodec.encode(new ChessGame());
+            badEnPassant[34] = (byte) badSquare;
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameBinaryCodec.decode(badEnPassant));
+        }
+    }
+}
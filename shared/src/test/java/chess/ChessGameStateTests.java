@@ -0,0 +1,144 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * This class checks the castling rights and En Passant square kept on ChessGame.
+ */
+public class ChessGameStateTests {
+
+    /**
+     * This test verify that a rook capture on its home square removes that castle,
+     * and that unmaking the move gives it back.
+     */
+    @Test
+    public void rookCaptureRemovesCastlingRight() {
+        ChessGame game = FenNotation.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Assertions.assertEquals(ChessGame.CASTLE_ALL, game.getCastlingRights());
+
+        MoveUndoRecord record = game.makeUncheckedMove(
+                new ChessMove(new ChessPosition(1, 8), new ChessPosition(8, 8), null));
+        Assertions.assertEquals(ChessGame.CASTLE_WHITE_QUEENSIDE | ChessGame.CASTLE_BLACK_QUEENSIDE,
+                game.getCastlingRights());
+
+        game.unmakeMove(record);
+        Assertions.assertEquals(ChessGame.CASTLE_ALL, game.getCastlingRights());
+    }
+
+    /**
+     * This test checks that only a double step opens En Passant, and only for one turn.
+     */
+    @Test
+    public void enPassantSquareLastsOneTurn() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals(ChessBoard.squareIndex(3, 5), game.getEnPassantSquare());
+
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        Assertions.assertEquals(-1, game.getEnPassantSquare());
+    }
+
+    /**
+     * This test verify that the board stores the shared piece instances, whatever was passed in.
+     */
+    @Test
+    public void boardStoresSharedPieces() {
+        ChessBoard board = new ChessBoard();
+        ChessPosition position = new ChessPosition(4, 4);
+        board.addPiece(position, new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN),
+                board.getPiece(position));
+        Assertions.assertSame(board.getPiece(position), board.makeDeepCopy().getPiece(position));
+    }
+
+    /**
+     * This test checks that a position off the board is refused instead of reading another square.
+     */
+    @Test
+    public void offBoardPositionsAreRejected() {
+        ChessGame game = new ChessGame();
+        ChessBoard board = game.getBoard();
+        ChessPosition offBoard = ChessPosition.of(1, 9);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.getPiece(offBoard));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> board.addPiece(offBoard, ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)));
+
+        // Through makeMove it is just an invalid move, as the server expects
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(offBoard, new ChessPosition(3, 1), null)));
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(new ChessPosition(1, 8), new ChessPosition(0, 8), null)));
+    }
+
+    /**
+     * This test checks the status of the side to move through a short mate, for a stalemate,
+     * and that the cached answer is dropped when the board is changed by hand.
+     */
+    @Test
+    public void gameStatusForSideToMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getGameStatus());
+
+        // Fool's mate: f3, e5, g4, Qh4#
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getGameStatus());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+        // Move the g-pawn back to g3 so it blocks the queen: no check any more
+        game.getBoard().addPiece(new ChessPosition(3, 7),
+                new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        game.getBoard().addPiece(new ChessPosition(4, 7), null);
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getGameStatus());
+
+        ChessGame stalemate = FenNotation.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, stalemate.getGameStatus());
+        Assertions.assertTrue(stalemate.isInStalemate(ChessGame.TeamColor.BLACK));
+
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK,
+                FenNotation.parse("4k3/8/8/8/8/8/8/4R1K1 b - - 0 1").getGameStatus());
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW,
+                FenNotation.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1").getGameStatus());
+    }
+
+    /**
+     * This test verify that undo walks back to the start exactly, redo replays the same line,
+     * and a new move after an undo drops what could be redone.
+     */
+    @Test
+    public void undoAndRedoWalkTheHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertThrows(InvalidMoveException.class, game::undoMove);
+
+        ChessMove pawnToE4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove pawnToD5 = new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null);
+        ChessMove pawnTakesD5 = new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null);
+        game.makeMove(pawnToE4);
+        game.makeMove(pawnToD5);
+        game.makeMove(pawnTakesD5);
+        String afterCapture = FenNotation.format(game);
+
+        Assertions.assertEquals(pawnTakesD5, game.undoMove());
+        game.undoMove();
+        game.undoMove();
+        Assertions.assertEquals(FenNotation.START_POSITION, FenNotation.format(game));
+        Assertions.assertFalse(game.canUndo());
+
+        game.redoMove();
+        game.redoMove();
+        Assertions.assertEquals(pawnTakesD5, game.redoMove());
+        Assertions.assertEquals(afterCapture, FenNotation.format(game));
+        Assertions.assertEquals(List.of(pawnToE4, pawnToD5, pawnTakesD5), game.getMoveHistory());
+
+        game.undoMove();
+        game.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null));
+        Assertions.assertFalse(game.canRedo());
+        Assertions.assertThrows(InvalidMoveException.class, game::redoMove);
+    }
+}
@@ -0,0 +1,120 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the compact JSON form of games, boards and moves, and that old JSON still loads.
+ */
+public class ChessGsonAdaptersTests {
+
+    private final Gson gson = new Gson();
+
+    /**
+     * This test verify that a game, its board and moves come back unchanged from a plain Gson.
+     */
+    @Test
+    public void compactFormsRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        String gameJson = gson.toJson(game);
+        Assertions.assertEquals("\"" + FenNotation.format(game) + "\"", gameJson);
+        ChessGame decoded = gson.fromJson(gameJson, ChessGame.class);
+        Assertions.assertEquals(FenNotation.format(game), FenNotation.format(decoded));
+
+        Assertions.assertEquals(game.getBoard(), gson.fromJson(gson.toJson(game.getBoard()), ChessBoard.class));
+
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("\"a7b8n\"", gson.toJson(promotion));
+        Assertions.assertEquals(promotion, gson.fromJson(gson.toJson(promotion), ChessMove.class));
+
+        // Off the board there is no square name, the move still has to reach the server to be refused there
+        ChessMove offBoard = new ChessMove(new ChessPosition(0, 1), new ChessPosition(9, 1), null);
+        Assertions.assertEquals(offBoard, gson.fromJson(gson.toJson(offBoard), ChessMove.class));
+    }
+
+    /**
+     * This test verify that a game with positions that can still repeat keeps them through JSON,
+     * so the third repetition is still seen after loading.
+     */
+    @Test
+    public void repetitionHistoryRoundTrips() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+            game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+            game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+            game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        }
+        Assertions.assertTrue(game.isDrawByRepetition());
+
+        String gameJson = gson.toJson(game);
+        Assertions.assertTrue(gameJson.contains("\"positionHistory\""), gameJson);
+        ChessGame decoded = gson.fromJson(gameJson, ChessGame.class);
+        Assertions.assertEquals(FenNotation.format(game), FenNotation.format(decoded));
+        Assertions.assertArrayEquals(game.getPositionHistory(), decoded.getPositionHistory());
+        Assertions.assertTrue(decoded.isDrawByRepetition());
+    }
+
+    /**
+     * This test checks the move objects sent by the web test page and by old reflective JSON.
+     */
+    @Test
+    public void moveObjectsAccepted() {
+        ChessMove expected = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        String webPage = "{\"startPosition\":{\"row\":2,\"column\":5},\"endPosition\":{\"row\":4,\"column\":5},"
+                + "\"promotionPiece\":null}";
+        Assertions.assertEquals(expected, gson.fromJson(webPage, ChessMove.class));
+
+        String reflective = "{\"startingLocation\":{\"rowLocationOnBoard\":2,\"colLocationOnBoard\":5},"
+                + "\"endingLocation\":{\"rowLocationOnBoard\":4,\"colLocationOnBoard\":5}}";
+        Assertions.assertEquals(expected, gson.fromJson(reflective, ChessMove.class));
+
+        Assertions.assertThrows(RuntimeException.class, () -> gson.fromJson("\"e2\"", ChessMove.class));
+    }
+
+    /**
+     * This test loads a game in the old 8x8 matrix form, where castling and en passant came from
+     * the moved flags on the pieces and from the last move.
+     */
+    @Test
+    public void legacyGameLoads() {
+        ChessBoard board = FenNotation.parsePlacement("r3k2r/8/8/8/3Pp3/8/8/R3K2R");
+        JsonArray matrix = new JsonArray();
+        for (int row = 1; row <= 8; row++) {
+            JsonArray cells = new JsonArray();
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if (piece == null) {
+                    cells.add(JsonNull.INSTANCE);
+                    continue;
+                }
+                JsonObject cell = new JsonObject();
+                cell.addProperty("myTeamColor", piece.getTeamColor().name());
+                cell.addProperty("myPieceType", piece.getPieceType().name());
+                // The white king and the h8 rook have moved before
+                cell.addProperty("hasExecutedMove", (row == 1 && col == 5) || (row == 8 && col == 8));
+                cells.add(cell);
+            }
+            matrix.add(cells);
+        }
+        JsonObject boardJson = new JsonObject();
+        boardJson.add("boardStorageMatrix", matrix);
+
+        JsonObject gameJson = new JsonObject();
+        gameJson.addProperty("currentTeamTurn", "BLACK");
+        gameJson.add("currentGameBoard", boardJson);
+        // White just played d2-d4, so the e4 pawn may take on d3
+        gameJson.add("lastCommittedMove", gson.fromJson(
+                "{\"startingLocation\":{\"rowLocationOnBoard\":2,\"colLocationOnBoard\":4},"
+                + "\"endingLocation\":{\"rowLocationOnBoard\":4,\"colLocationOnBoard\":4}}", JsonObject.class));
+
+        ChessGame game = gson.fromJson(gameJson, ChessGame.class);
+        Assertions.assertEquals("r3k2r/8/8/8/3Pp3/8/8/R3K2R b q d3 0 1", FenNotation.format(game));
+    }
+}
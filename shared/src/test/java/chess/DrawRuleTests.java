@@ -0,0 +1,115 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the automatic draws: threefold repetition, fifty-move rule and insufficient material.
+ */
+public class DrawRuleTests {
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+    }
+
+    /**
+     * This test verify that the start position seen a third time is a draw, that undoing a move
+     * takes the draw away, and that the count survives the binary encoding.
+     */
+    @Test
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        Assertions.assertFalse(game.isDrawByRepetition());
+
+        // Knights go out and back once more: the start position is on the board for the third time
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+        MoveUndoRecord lastMove = game.makeUncheckedMove(
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        Assertions.assertTrue(game.isDrawByRepetition());
+        Assertions.assertTrue(game.isDraw());
+
+        game.unmakeMove(lastMove);
+        Assertions.assertFalse(game.isDrawByRepetition());
+        game.makeUncheckedMove(lastMove.getMove());
+
+        ChessGame stored = ChessGameBinaryCodec.decode(ChessGameBinaryCodec.encode(game));
+        Assertions.assertTrue(stored.isDrawByRepetition());
+        Assertions.assertTrue(game.makeDeepCopy().isDrawByRepetition());
+    }
+
+    /**
+     * This test checks that the repetition counts stay right after thousands of positions were
+     * counted and taken back again, as in a search.
+     */
+    @Test
+    public void repetitionCountSurvivesMakeAndUnmake() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        walk(game, 3);
+        Assertions.assertFalse(game.isDrawByRepetition());
+
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isDrawByRepetition());
+        walk(game, 3);
+        Assertions.assertTrue(game.isDrawByRepetition());
+    }
+
+    private static void walk(ChessGame game, int depth) {
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        game.collectValidMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            MoveUndoRecord record = game.makeUncheckedMove(moves.get(i));
+            walk(game, depth - 1);
+            game.unmakeMove(record);
+        }
+    }
+
+    /**
+     * This test checks that a pawn move in between resets the repetition count.
+     */
+    @Test
+    public void pawnMoveBreaksRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        game.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(6, 1), null));
+        shuffleKnights(game);
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isDrawByRepetition());
+
+        ChessGame fresh = new ChessGame();
+        shuffleKnights(fresh);
+        fresh.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null));
+        fresh.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(6, 1), null));
+        shuffleKnights(fresh);
+        Assertions.assertFalse(fresh.isDrawByRepetition());
+    }
+
+    /**
+     * This test checks the fifty-move counter and the material combinations that can never mate.
+     */
+    @Test
+    public void fiftyMovesAndInsufficientMaterial() {
+        Assertions.assertFalse(FenNotation.parse("4k3/8/8/8/8/8/8/R3K3 w - - 99 80").isDrawByFiftyMoveRule());
+        Assertions.assertTrue(FenNotation.parse("4k3/8/8/8/8/8/8/R3K3 w - - 100 80").isDraw());
+
+        Assertions.assertTrue(FenNotation.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1").isDrawByInsufficientMaterial());
+        Assertions.assertTrue(FenNotation.parse("4k3/8/8/8/8/8/8/2N1K3 w - - 0 1").isDrawByInsufficientMaterial());
+        // Both bishops on dark squares (c1 and f8)
+        Assertions.assertTrue(FenNotation.parse("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1").isDrawByInsufficientMaterial());
+        // Bishops on different colors (c1 and c8) can still mate in a corner
+        Assertions.assertFalse(FenNotation.parse("2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1").isDrawByInsufficientMaterial());
+        Assertions.assertFalse(FenNotation.parse("4k3/8/8/8/8/8/8/1NN1K3 w - - 0 1").isDrawByInsufficientMaterial());
+        Assertions.assertFalse(FenNotation.parse("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1").isDrawByInsufficientMaterial());
+        Assertions.assertFalse(new ChessGame().isDraw());
+    }
+}
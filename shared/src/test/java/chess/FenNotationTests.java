@@ -0,0 +1,58 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks reading and writing games as FEN strings.
+ */
+public class FenNotationTests {
+
+    /**
+     * This test verify that every perft position comes back out exactly as it went in.
+     */
+    @Test
+    public void standardPositionsRoundTrip() {
+        for (PerftRunner.PerftPosition position : PerftRunner.STANDARD_POSITIONS) {
+            Assertions.assertEquals(position.fen(), FenNotation.format(FenNotation.parse(position.fen())));
+        }
+        Assertions.assertEquals(new ChessGame(), FenNotation.parse(FenNotation.START_POSITION));
+    }
+
+    /**
+     * This test checks that castling, en passant and the clocks follow the moves played.
+     */
+    @Test
+    public void gameStateAfterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+                FenNotation.format(game));
+
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2",
+                FenNotation.format(game));
+
+        ChessGame reloaded = FenNotation.parse(FenNotation.format(game));
+        Assertions.assertEquals(game.getZobristKey(), reloaded.getZobristKey());
+        Assertions.assertEquals(game.getHalfmoveClock(), reloaded.getHalfmoveClock());
+        Assertions.assertEquals(game.getFullmoveNumber(), reloaded.getFullmoveNumber());
+    }
+
+    /**
+     * This test verify that broken FEN strings are rejected with a clear error.
+     */
+    @Test
+    public void invalidFenRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FenNotation.parse(""));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FenNotation.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FenNotation.parse("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FenNotation.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FenNotation.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1"));
+    }
+}
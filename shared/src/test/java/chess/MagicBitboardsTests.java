@@ -0,0 +1,30 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * This class compares the magic lookups with the slow square by square ray walk.
+ */
+public class MagicBitboardsTests {
+
+    /**
+     * This test checks every square against many random blocker layouts.
+     */
+    @Test
+    public void lookupsMatchRayWalk() {
+        Random random = new Random(240);
+        for (int square = 0; square < ChessBoard.SQUARE_COUNT; square++) {
+            for (int trial = 0; trial < 200; trial++) {
+                // AND of two randoms gives a board about a quarter full, close to a real game
+                long occupied = random.nextLong() & random.nextLong();
+                Assertions.assertEquals(MagicBitboards.walkRays(square, occupied, MagicBitboards.ROOK_DIRECTIONS),
+                        MagicBitboards.rookAttacks(square, occupied), "Rook attacks wrong on square " + square);
+                Assertions.assertEquals(MagicBitboards.walkRays(square, occupied, MagicBitboards.BISHOP_DIRECTIONS),
+                        MagicBitboards.bishopAttacks(square, occupied), "Bishop attacks wrong on square " + square);
+            }
+        }
+    }
+}
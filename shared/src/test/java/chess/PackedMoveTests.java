@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the int move encoding and the packed move list.
+ */
+public class PackedMoveTests {
+
+    /**
+     * This test verify that a promotion survives the round trip through the packed form.
+     */
+    @Test
+    public void promotionRoundTrip() {
+        ChessMove move = new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT);
+        int packedMove = PackedMove.fromChessMove(move, new ChessBoard());
+
+        Assertions.assertEquals(ChessBoard.squareIndex(7, 2), PackedMove.fromSquare(packedMove));
+        Assertions.assertEquals(ChessBoard.squareIndex(8, 1), PackedMove.toSquare(packedMove));
+        Assertions.assertEquals(ChessPiece.PieceType.KNIGHT, PackedMove.promotionPiece(packedMove));
+        Assertions.assertEquals(move, PackedMove.toChessMove(packedMove));
+    }
+
+    /**
+     * This test checks that the special move flags are worked out from the board.
+     */
+    @Test
+    public void flagsInferredFromBoard() {
+        ChessGame game = FenNotation.parse("r3k3/8/8/3pP3/8/8/8/4K2R w K d6 0 1");
+        ChessBoard board = game.getBoard();
+
+        int castle = PackedMove.fromChessMove(
+                new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 7), null), board);
+        int enPassant = PackedMove.fromChessMove(
+                new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 4), null), board);
+        int kingStep = PackedMove.fromChessMove(
+                new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null), board);
+
+        Assertions.assertTrue(PackedMove.isCastle(castle));
+        Assertions.assertTrue(PackedMove.isEnPassant(enPassant));
+        Assertions.assertFalse(PackedMove.isCastle(kingStep) || PackedMove.isEnPassant(kingStep));
+    }
+
+    /**
+     * This test verify that the move list grows past its capacity and reuses its array after clear.
+     */
+    @Test
+    public void moveListGrowsAndClears() {
+        MoveList moves = new MoveList(2);
+        for (int square = 0; square < 10; square++) {
+            moves.add(PackedMove.encode(square, square + 8));
+        }
+        Assertions.assertEquals(10, moves.size());
+        Assertions.assertEquals(PackedMove.encode(9, 17), moves.get(9));
+        Assertions.assertTrue(moves.containsMove(PackedMove.encode(3, 11, null, PackedMove.FLAG_DOUBLE_PAWN_STEP)));
+
+        moves.clear();
+        Assertions.assertTrue(moves.isEmpty());
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> moves.get(0));
+    }
+}
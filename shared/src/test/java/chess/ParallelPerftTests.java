@@ -0,0 +1,31 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that the fork/join perft counts the same trees as the plain one.
+ */
+public class ParallelPerftTests {
+
+    /**
+     * This test verify the published counts with root splitting only, two split plies,
+     * and two split plies with the hash table.
+     */
+    @Test
+    public void parallelCountsMatch() {
+        try (ParallelPerft rootOnly = new ParallelPerft(4);
+             ParallelPerft twoPlies = new ParallelPerft(4, 2, 0);
+             ParallelPerft hashed = new ParallelPerft(4, 2, 16)) {
+            for (PerftRunner.PerftPosition position : PerftRunner.STANDARD_POSITIONS) {
+                ChessGame game = PerftRunner.loadPosition(position);
+                Assertions.assertEquals(position.expectedNodes()[2], rootOnly.perft(game, 3), position.name());
+                Assertions.assertEquals(position.expectedNodes()[3], twoPlies.perft(game, 4), position.name());
+                Assertions.assertEquals(position.expectedNodes()[3], hashed.perft(game, 4), position.name());
+                // The second run is mostly answered from the table
+                Assertions.assertEquals(position.expectedNodes()[3], hashed.perft(game, 4), position.name());
+                Assertions.assertEquals(position.fen(), FenNotation.format(game));
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * This class runs the perft counts of the standard positions as a regression oracle.
+ * If any count drifts, the move generator produces a wrong move somewhere in the tree.
+ */
+public class PerftTests {
+
+    /**
+     * This test walks every standard position to a depth that still runs fast.
+     */
+    @Test
+    public void standardPositionsMatchPublishedCounts() {
+        for (PerftRunner.PerftPosition position : PerftRunner.STANDARD_POSITIONS) {
+            ChessGame game = PerftRunner.loadPosition(position);
+            int depth = 3;
+            Assertions.assertEquals(position.expectedNodes()[depth - 1], PerftRunner.perft(game, depth),
+                    "Wrong perft count for " + position.name());
+        }
+    }
+
+    /**
+     * This test checks the deeper start position count and that the walk leaves the game untouched.
+     */
+    @Test
+    public void startPositionDepthFourLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        ChessGame untouchedGame = new ChessGame();
+
+        Assertions.assertEquals(197281, PerftRunner.perft(game, 4));
+        Assertions.assertEquals(untouchedGame, game);
+    }
+
+    /**
+     * This test verify that the divide output adds up to the plain perft count.
+     */
+    @Test
+    public void divideSumsToPerftCount() {
+        ChessGame game = PerftRunner.loadPosition(PerftRunner.KIWIPETE);
+        Map<ChessMove, Long> divide = PerftRunner.divide(game, 2);
+
+        Assertions.assertEquals(48, divide.size());
+        Assertions.assertEquals(2039L, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+}
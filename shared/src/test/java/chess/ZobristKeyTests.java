@@ -0,0 +1,63 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that the incrementally updated Zobrist key always matches the position.
+ */
+public class ZobristKeyTests {
+
+    /**
+     * This test walks a tree with make/unmake and compares every key to one built from scratch.
+     */
+    @Test
+    public void incrementalKeyMatchesRebuiltBoard() {
+        ChessGame game = PerftRunner.loadPosition(PerftRunner.KIWIPETE);
+        long rootKey = game.getZobristKey();
+        for (ChessMove move : game.allValidMoves()) {
+            MoveUndoRecord record = game.makeUncheckedMove(move);
+            for (ChessMove reply : game.allValidMoves()) {
+                MoveUndoRecord replyRecord = game.makeUncheckedMove(reply);
+                Assertions.assertEquals(rebuiltPieceKey(game.getBoard()), game.getBoard().getZobristKey(),
+                        "Key drifted after " + move + " " + reply);
+                game.unmakeMove(replyRecord);
+            }
+            game.unmakeMove(record);
+        }
+        Assertions.assertEquals(rootKey, game.getZobristKey());
+    }
+
+    /**
+     * This test verify that two move orders reaching the same position get the same key,
+     * and that the side to move changes the key.
+     */
+    @Test
+    public void transpositionsShareKey() throws InvalidMoveException {
+        ChessGame knightsFirst = new ChessGame();
+        knightsFirst.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        knightsFirst.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        knightsFirst.makeMove(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null));
+
+        ChessGame otherKnightFirst = new ChessGame();
+        otherKnightFirst.makeMove(new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null));
+        otherKnightFirst.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        otherKnightFirst.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+
+        Assertions.assertEquals(knightsFirst.getZobristKey(), otherKnightFirst.getZobristKey());
+
+        otherKnightFirst.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertNotEquals(knightsFirst.getZobristKey(), otherKnightFirst.getZobristKey());
+    }
+
+    private static long rebuiltPieceKey(ChessBoard board) {
+        long key = 0;
+        for (int square = 0; square < ChessBoard.SQUARE_COUNT; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                key ^= ZobristKeys.pieceSquare(piece, square);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,116 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.FenNotation;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class checks that books written by the writer are found again through the mapped file.
+ */
+public class OpeningBookTests {
+
+    private static final ChessMove E2_E4 = move(2, 5, 4, 5);
+    private static final ChessMove D2_D4 = move(2, 4, 4, 4);
+    private static final ChessMove E7_E5 = move(7, 5, 5, 5);
+
+    /**
+     * This test verify that book moves come back legal and sorted by weight, that weights of the
+     * same move add up, that a castle survives the king-takes-rook encoding, and that a position
+     * not in the book gives nothing.
+     */
+    @Test
+    public void writtenBookIsFoundAgain() throws IOException, InvalidMoveException {
+        ChessGame start = new ChessGame();
+        ChessGame afterE4 = new ChessGame();
+        afterE4.makeMove(E2_E4);
+        ChessGame castling = FenNotation.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+        OpeningBookWriter writer = new OpeningBookWriter();
+        writer.add(start, D2_D4, 5);
+        writer.add(start, E2_E4, 7);
+        writer.add(start, E2_E4, 3);
+        writer.add(afterE4, E7_E5, 1);
+        writer.add(castling, move(1, 5, 1, 7), 2);
+        writer.add(castling, move(1, 5, 1, 3), 1);
+        Assertions.assertEquals(5, writer.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> writer.add(start, E7_E5, 1));
+        Path bookFile = newTempFile();
+        writer.write(bookFile);
+        Assertions.assertEquals(5 * OpeningBook.ENTRY_BYTES, Files.size(bookFile));
+
+        try (OpeningBook book = new OpeningBook(bookFile)) {
+            Assertions.assertEquals(5, book.size());
+            Assertions.assertEquals(List.of(new BookMove(E2_E4, 10), new BookMove(D2_D4, 5)), book.lookup(start));
+            Assertions.assertEquals(new BookMove(E7_E5, 1), book.bestMove(afterE4));
+            Assertions.assertEquals(List.of(new BookMove(move(1, 5, 1, 7), 2), new BookMove(move(1, 5, 1, 3), 1)),
+                    book.lookup(castling));
+
+            ChessGame outOfBook = FenNotation.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+            Assertions.assertTrue(book.lookup(outOfBook).isEmpty());
+            Assertions.assertNull(book.pickMove(outOfBook, new Random(1)));
+        }
+    }
+
+    /**
+     * This test checks that random picks follow the weights and that the search plays
+     * from the book without searching.
+     */
+    @Test
+    public void bookMovesArePickedByWeightAndUsedBySearch() throws IOException {
+        ChessGame start = new ChessGame();
+        OpeningBookWriter writer = new OpeningBookWriter();
+        writer.add(start, E2_E4, 3);
+        writer.add(start, D2_D4, 1);
+        Path bookFile = newTempFile();
+        writer.write(bookFile);
+
+        try (OpeningBook book = new OpeningBook(bookFile)) {
+            Random random = new Random(42);
+            int kingPawnPicks = 0;
+            for (int i = 0; i < 4000; i++) {
+                if (book.pickMove(start, random).move().equals(E2_E4)) {
+                    kingPawnPicks++;
+                }
+            }
+            // Three in four, give or take a few percent
+            Assertions.assertTrue(kingPawnPicks > 2800 && kingPawnPicks < 3200, "e2e4 picked " + kingPawnPicks);
+
+            SearchEngine engine = new SearchEngine();
+            engine.setOpeningBook(book);
+            SearchResult result = engine.search(start, SearchLimits.depth(6));
+            Assertions.assertEquals(E2_E4, result.bestMove());
+            Assertions.assertEquals(0, result.nodes());
+        }
+    }
+
+    /**
+     * This test verify that a file that is not a whole number of entries is refused.
+     */
+    @Test
+    public void truncatedFileIsRejected() throws IOException {
+        Path bookFile = newTempFile();
+        Files.write(bookFile, new byte[OpeningBook.ENTRY_BYTES + 3]);
+        Assertions.assertThrows(IOException.class, () -> new OpeningBook(bookFile));
+    }
+
+    // Not a @TempDir: some systems refuse to delete a file that is still mapped, so it goes when the JVM exits
+    private static Path newTempFile() throws IOException {
+        Path file = Files.createTempFile("opening-book", ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return new ChessMove(new ChessPosition(fromRow, fromColumn), new ChessPosition(toRow, toColumn), null);
+    }
+}
@@ -0,0 +1,52 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.FenNotation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the multi-threaded search against the single-threaded one.
+ */
+public class ParallelSearchTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    /**
+     * This test verify that one thread gives exactly what a plain SearchEngine gives.
+     */
+    @Test
+    public void singleThreadMatchesPlainEngine() {
+        SearchResult plain = new SearchEngine(new MaterialEvaluator(), new TranspositionTable(8))
+                .search(FenNotation.parse(KIWIPETE), SearchLimits.depth(4));
+        try (ParallelSearch search = new ParallelSearch(1, 8, MaterialEvaluator::new)) {
+            SearchResult parallel = search.search(FenNotation.parse(KIWIPETE), SearchLimits.depth(4));
+            Assertions.assertEquals(plain.bestMove(), parallel.bestMove());
+            Assertions.assertEquals(plain.score(), parallel.score());
+            Assertions.assertEquals(plain.nodes(), parallel.nodes());
+        }
+    }
+
+    /**
+     * This test checks that four threads still find the mate, count the helpers' nodes
+     * and leave the caller's game alone.
+     */
+    @Test
+    public void fourThreadsFindMate() {
+        String fen = "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1";
+        ChessGame game = FenNotation.parse(fen);
+        try (ParallelSearch search = new ParallelSearch(4)) {
+            SearchResult result = search.search(game, SearchLimits.depth(6));
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                    result.bestMove());
+            Assertions.assertEquals(SearchEngine.MATE_SCORE - 1, result.score());
+
+            SearchResult timed = search.search(FenNotation.parse(KIWIPETE), SearchLimits.time(300));
+            Assertions.assertNotNull(timed.bestMove());
+            Assertions.assertTrue(timed.nodes() > 0);
+        }
+        Assertions.assertEquals(fen, FenNotation.format(game));
+    }
+}
@@ -0,0 +1,103 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.FenNotation;
+import chess.MoveList;
+import chess.MoveUndoRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks the incremental board scores, the symmetry of the evaluation and the pawn cache.
+ */
+public class PositionEvaluatorTests {
+
+    /**
+     * This test plays every move two plies deep (castles, captures, en passant and promotions
+     * included) and checks that the scores the board kept up to date equal the scores of the same
+     * placement built from scratch, before and after each unmake.
+     */
+    @Test
+    public void incrementalScoresMatchFreshBoard() {
+        String[] fens = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+        };
+        for (String fen : fens) {
+            ChessGame game = FenNotation.parse(fen);
+            assertMatchesFreshBoard(game.getBoard());
+            walk(game, 2);
+            Assertions.assertEquals(fen, FenNotation.format(game));
+        }
+    }
+
+    /**
+     * This test verify that a position and its mirror image (rows flipped, colors swapped) get
+     * opposite scores, and that the side to move only changes the sign.
+     */
+    @Test
+    public void mirroredPositionsScoreOpposite() {
+        PositionEvaluator evaluator = new PositionEvaluator();
+        ChessGame game = FenNotation.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        ChessGame mirrored = FenNotation.parse("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1");
+
+        int score = evaluator.evaluateForWhite(game.getBoard());
+        Assertions.assertEquals(-score, evaluator.evaluateForWhite(mirrored.getBoard()));
+        Assertions.assertEquals(evaluator.evaluate(game), evaluator.evaluate(mirrored));
+
+        // An extra rook has to outweigh every positional term
+        ChessGame rookUp = FenNotation.parse("4k3/pppppppp/8/8/8/8/PPPPPPPP/R3K3 w - - 0 1");
+        Assertions.assertTrue(evaluator.evaluateForWhite(rookUp.getBoard()) > 300);
+    }
+
+    /**
+     * This test checks that the pawn structure is cached: a second look at the same pawns is a hit,
+     * also after a piece move that leaves them alone, and that a passed pawn is worth something.
+     */
+    @Test
+    public void pawnStructureIsCached() {
+        PositionEvaluator evaluator = new PositionEvaluator(new PawnHashTable(1024));
+        ChessGame game = FenNotation.parse("4k3/8/8/3P4/8/8/8/4K3 w - - 0 1");
+
+        int score = evaluator.evaluateForWhite(game.getBoard());
+        Assertions.assertEquals(0, evaluator.getPawnTable().getHits());
+        Assertions.assertEquals(1, evaluator.getPawnTable().getMisses());
+
+        ChessGame kingMoved = FenNotation.parse("4k3/8/8/3P4/8/8/4K3/8 b - - 1 1");
+        evaluator.evaluateForWhite(kingMoved.getBoard());
+        Assertions.assertEquals(game.getBoard().getPawnZobristKey(), kingMoved.getBoard().getPawnZobristKey());
+        Assertions.assertEquals(1, evaluator.getPawnTable().getHits());
+
+        // The same pawn is worth less when an enemy pawn next to its file can still stop it
+        ChessGame notPassed = FenNotation.parse("4k3/2p5/8/3P4/8/8/8/4K3 w - - 0 1");
+        ChessGame passedWithPawns = FenNotation.parse("4k3/6p1/8/3P4/8/8/8/4K3 w - - 0 1");
+        Assertions.assertTrue(evaluator.evaluateForWhite(passedWithPawns.getBoard())
+                > evaluator.evaluateForWhite(notPassed.getBoard()));
+        Assertions.assertTrue(score > 100);
+    }
+
+    private static void walk(ChessGame game, int depth) {
+        if (depth == 0) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        game.collectValidMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            MoveUndoRecord record = game.makeUncheckedMove(moves.get(i));
+            assertMatchesFreshBoard(game.getBoard());
+            walk(game, depth - 1);
+            game.unmakeMove(record);
+            assertMatchesFreshBoard(game.getBoard());
+        }
+    }
+
+    private static void assertMatchesFreshBoard(ChessBoard board) {
+        ChessBoard fresh = FenNotation.parsePlacement(FenNotation.formatPlacement(board));
+        Assertions.assertEquals(fresh.getMidgameScore(), board.getMidgameScore());
+        Assertions.assertEquals(fresh.getEndgameScore(), board.getEndgameScore());
+        Assertions.assertEquals(fresh.getGamePhase(), board.getGamePhase());
+        Assertions.assertEquals(fresh.getPawnZobristKey(), board.getPawnZobristKey());
+    }
+}
@@ -0,0 +1,57 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.FenNotation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that the search finds the obvious moves and respects its limits.
+ */
+public class SearchEngineTests {
+
+    /**
+     * This test verify that a back rank mate in one is found and scored as a mate.
+     */
+    @Test
+    public void findsMateInOne() {
+        ChessGame game = FenNotation.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new SearchEngine().search(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                result.bestMove());
+        Assertions.assertEquals(SearchEngine.MATE_SCORE - 1, result.score());
+    }
+
+    /**
+     * This test checks that a free queen is taken, and that the game is left as it was found.
+     */
+    @Test
+    public void takesHangingQueenAndRestoresGame() {
+        String fen = "4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1";
+        ChessGame game = FenNotation.parse(fen);
+        SearchResult result = new SearchEngine().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null),
+                result.bestMove());
+        Assertions.assertTrue(result.score() > 300);
+        Assertions.assertEquals(fen, FenNotation.format(game));
+    }
+
+    /**
+     * This test checks the node budget and the result of a position with no legal moves.
+     */
+    @Test
+    public void respectsNodeLimitAndFinishedGames() {
+        SearchResult limited = new SearchEngine().search(new ChessGame(), SearchLimits.nodes(5_000));
+        Assertions.assertNotNull(limited.bestMove());
+        Assertions.assertTrue(limited.nodes() <= 5_000);
+
+        ChessGame stalemate = FenNotation.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult none = new SearchEngine().search(stalemate, SearchLimits.depth(2));
+        Assertions.assertNull(none.bestMove());
+        Assertions.assertEquals(0, none.score());
+    }
+}
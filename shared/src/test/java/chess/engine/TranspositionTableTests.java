@@ -0,0 +1,85 @@
+package chess.engine;
+
+import chess.FenNotation;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class checks the packed entries, the statistics and the lockless sharing of the table.
+ */
+public class TranspositionTableTests {
+
+    /**
+     * This test verify that every field of an entry comes back as stored, negative scores included.
+     */
+    @Test
+    public void storedEntryReadsBack() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = PackedMove.encode(12, 28, null, PackedMove.FLAG_DOUBLE_PAWN_STEP);
+        table.store(0x1234_5678_9ABC_DEF0L, move, -29_990, 17, TranspositionTable.BOUND_LOWER);
+
+        long data = table.probe(0x1234_5678_9ABC_DEF0L);
+        Assertions.assertEquals(move, TranspositionTable.move(data));
+        Assertions.assertEquals(-29_990, TranspositionTable.score(data));
+        Assertions.assertEquals(17, TranspositionTable.depth(data));
+        Assertions.assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(data));
+
+        // Same bucket, different key: must not be mistaken for the stored position
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.probe(0x1234_5678_9ABC_DEF0L + (1L << 40)));
+        Assertions.assertEquals(1, table.getHits());
+        Assertions.assertEquals(1, table.getMisses());
+        Assertions.assertEquals(0.5, table.getHitRate());
+    }
+
+    /**
+     * This test hammers one small table from several threads. Every entry read back must be the
+     * one written for that key, never a mix of two writes.
+     */
+    @Test
+    public void concurrentWritersNeverTearEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicInteger wrongEntries = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    // A few thousand keys for many more writes, so threads keep overwriting each other
+                    long key = (((i * 7919L + seed) % 5000) + 1) * 0x9E37_79B9_7F4A_7C15L;
+                    table.store(key, (int) (key >>> 45), (int) (key >>> 50), (int) (key >>> 58), TranspositionTable.BOUND_EXACT);
+                    long data = table.probe(key);
+                    if (data != TranspositionTable.NO_ENTRY && TranspositionTable.move(data) != (int) (key >>> 45)) {
+                        wrongEntries.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(0, wrongEntries.get());
+    }
+
+    /**
+     * This test checks that a search with the table finds the same mate and actually uses the table.
+     */
+    @Test
+    public void searchUsesTable() {
+        TranspositionTable table = new TranspositionTable(4);
+        SearchEngine engine = new SearchEngine(new MaterialEvaluator(), table);
+        SearchResult result = engine.search(FenNotation.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), SearchLimits.depth(5));
+        Assertions.assertEquals(SearchEngine.MATE_SCORE - 1, result.score());
+
+        engine.search(FenNotation.parse(FenNotation.START_POSITION), SearchLimits.depth(5));
+        Assertions.assertTrue(table.getHits() > 0);
+        Assertions.assertTrue(table.getStores() > 0);
+    }
+}